@@ -1,6 +1,5 @@
 package mcpthespire;
 
-import basemod.ReflectionHacks;
 import com.badlogic.gdx.Gdx;
 import com.megacrit.cardcrawl.cards.AbstractCard;
 import com.megacrit.cardcrawl.cards.CardGroup;
@@ -9,21 +8,19 @@ import com.megacrit.cardcrawl.core.Settings;
 import com.megacrit.cardcrawl.dungeons.AbstractDungeon;
 import com.megacrit.cardcrawl.dungeons.TheEnding;
 import com.megacrit.cardcrawl.events.AbstractImageEvent;
-import com.megacrit.cardcrawl.events.GenericEventDialog;
 import com.megacrit.cardcrawl.events.RoomEventDialog;
 import com.megacrit.cardcrawl.events.shrines.GremlinMatchGame;
 import com.megacrit.cardcrawl.events.shrines.GremlinWheelGame;
 import com.megacrit.cardcrawl.helpers.Hitbox;
 import com.megacrit.cardcrawl.helpers.input.InputHelper;
 import com.megacrit.cardcrawl.map.DungeonMap;
+import com.megacrit.cardcrawl.map.MapEdge;
 import com.megacrit.cardcrawl.map.MapRoomNode;
 import com.megacrit.cardcrawl.relics.AbstractRelic;
 import com.megacrit.cardcrawl.rewards.RewardItem;
 import com.megacrit.cardcrawl.rewards.chests.AbstractChest;
 import com.megacrit.cardcrawl.rooms.*;
-import com.megacrit.cardcrawl.screens.CardRewardScreen;
 import com.megacrit.cardcrawl.screens.mainMenu.MenuCancelButton;
-import com.megacrit.cardcrawl.screens.select.BossRelicSelectScreen;
 import com.megacrit.cardcrawl.screens.select.GridCardSelectScreen;
 import com.megacrit.cardcrawl.screens.select.HandCardSelectScreen;
 import com.megacrit.cardcrawl.shop.ShopScreen;
@@ -35,9 +32,8 @@ import mcpthespire.patches.*;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.TreeSet;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -46,6 +42,16 @@ public class ChoiceScreenUtils {
 
     private static final Logger logger = LogManager.getLogger(ChoiceScreenUtils.class.getName());
 
+    // One get_screen_state read classifies the screen many times over (choice list, button checks,
+    // available commands), so the results are memoized until the next frame or command. Game thread only.
+    private static long commandEpoch = 0;
+    private static long memoFrameId = -1;
+    private static long memoEpoch = -1;
+    private static ChoiceType memoChoiceType;
+    private static ArrayList<String> memoChoiceList;
+    private static Boolean memoConfirmAvailable;
+    private static Boolean memoCancelAvailable;
+
     public enum ChoiceType {
         EVENT,
         CHEST,
@@ -92,7 +98,36 @@ public class ChoiceScreenUtils {
         return result;
     }
 
+    /**
+     * Forget the memoized screen classification. Call after anything that can change the screen
+     * within a frame, and on entering each BaseMod hook: the game's own update runs between hooks
+     * of the same frame without changing the frame id.
+     */
+    public static void invalidateFrameMemo() {
+        commandEpoch++;
+    }
+
+    private static void checkFrameMemo() {
+        long frameId = Gdx.graphics.getFrameId();
+        if (frameId != memoFrameId || commandEpoch != memoEpoch) {
+            memoFrameId = frameId;
+            memoEpoch = commandEpoch;
+            memoChoiceType = null;
+            memoChoiceList = null;
+            memoConfirmAvailable = null;
+            memoCancelAvailable = null;
+        }
+    }
+
     public static ChoiceType getCurrentChoiceType() {
+        checkFrameMemo();
+        if (memoChoiceType == null) {
+            memoChoiceType = computeCurrentChoiceType();
+        }
+        return memoChoiceType;
+    }
+
+    private static ChoiceType computeCurrentChoiceType() {
         if (!AbstractDungeon.isScreenUp) {
             if (AbstractDungeon.getCurrRoom().phase == AbstractRoom.RoomPhase.EVENT || (AbstractDungeon.getCurrRoom().event != null && AbstractDungeon.getCurrRoom().phase == AbstractRoom.RoomPhase.COMPLETE)) {
                 return ChoiceType.EVENT;
@@ -138,6 +173,14 @@ public class ChoiceScreenUtils {
 
     public static ArrayList<String> getCurrentChoiceList() {
         ChoiceType choiceType = getCurrentChoiceType();
+        if (memoChoiceList == null) {
+            memoChoiceList = computeChoiceList(choiceType);
+        }
+        // Callers get their own copy; the memo is shared by every read this frame
+        return new ArrayList<>(memoChoiceList);
+    }
+
+    private static ArrayList<String> computeChoiceList(ChoiceType choiceType) {
         ArrayList<String> choices;
         switch (choiceType) {
             case EVENT:
@@ -181,42 +224,47 @@ public class ChoiceScreenUtils {
 
     public static void executeChoice(int choice_index) {
         ChoiceType choiceType = getCurrentChoiceType();
-        switch (choiceType) {
-            case EVENT:
-                makeEventChoice(choice_index);
-                return;
-            case CHEST:
-                makeChestRoomChoice(choice_index);
-                return;
-            case SHOP_ROOM:
-                makeShopRoomChoice(choice_index);
-                return;
-            case REST:
-                makeRestRoomChoice(choice_index);
-                return;
-            case CARD_REWARD:
-                makeCardRewardChoice(choice_index);
-                return;
-            case COMBAT_REWARD:
-                makeCombatRewardChoice(choice_index);
-                return;
-            case MAP:
-                makeMapChoice(choice_index);
-                return;
-            case BOSS_REWARD:
-                makeBossRewardChoice(choice_index);
-                return;
-            case SHOP_SCREEN:
-                makeShopScreenChoice(choice_index);
-                return;
-            case GRID:
-                makeGridScreenChoice(choice_index);
-                return;
-            case HAND_SELECT:
-                makeHandSelectScreenChoice(choice_index);
-                return;
-            default:
-                logger.info("Unimplemented choice.");
+        // Cases return as soon as they act; the screen may have changed in any of them
+        try {
+            switch (choiceType) {
+                case EVENT:
+                    makeEventChoice(choice_index);
+                    return;
+                case CHEST:
+                    makeChestRoomChoice(choice_index);
+                    return;
+                case SHOP_ROOM:
+                    makeShopRoomChoice(choice_index);
+                    return;
+                case REST:
+                    makeRestRoomChoice(choice_index);
+                    return;
+                case CARD_REWARD:
+                    makeCardRewardChoice(choice_index);
+                    return;
+                case COMBAT_REWARD:
+                    makeCombatRewardChoice(choice_index);
+                    return;
+                case MAP:
+                    makeMapChoice(choice_index);
+                    return;
+                case BOSS_REWARD:
+                    makeBossRewardChoice(choice_index);
+                    return;
+                case SHOP_SCREEN:
+                    makeShopScreenChoice(choice_index);
+                    return;
+                case GRID:
+                    makeGridScreenChoice(choice_index);
+                    return;
+                case HAND_SELECT:
+                    makeHandSelectScreenChoice(choice_index);
+                    return;
+                default:
+                    logger.info("Unimplemented choice.");
+            }
+        } finally {
+            invalidateFrameMemo();
         }
     }
 
@@ -254,7 +302,11 @@ public class ChoiceScreenUtils {
     }
 
     public static boolean isCancelButtonAvailable() {
-        return isCancelButtonAvailable(getCurrentChoiceType());
+        ChoiceType choiceType = getCurrentChoiceType();
+        if (memoCancelAvailable == null) {
+            memoCancelAvailable = isCancelButtonAvailable(choiceType);
+        }
+        return memoCancelAvailable;
     }
 
     private static String getCancelButtonText(ChoiceType choiceType) {
@@ -279,22 +331,26 @@ public class ChoiceScreenUtils {
     }
 
     private static void pressCancelButton(ChoiceType choiceType) {
-        switch (choiceType) {
-            case CARD_REWARD:
-                AbstractDungeon.closeCurrentScreen();
-                return;
-            case MAP:
-                clickCancelButton();
-                return;
-            case BOSS_REWARD:
-                MenuCancelButton button = (MenuCancelButton)ReflectionHacks.getPrivate(AbstractDungeon.bossRelicScreen, BossRelicSelectScreen.class, "cancelButton");
-                button.hb.clicked = true;
-                return;
-            case SHOP_SCREEN:
-                clickCancelButton();
-                return;
-            case GRID:
-                clickCancelButton();
+        try {
+            switch (choiceType) {
+                case CARD_REWARD:
+                    AbstractDungeon.closeCurrentScreen();
+                    return;
+                case MAP:
+                    clickCancelButton();
+                    return;
+                case BOSS_REWARD:
+                    MenuCancelButton button = ScreenFields.BOSS_RELIC_CANCEL_BUTTON.get(AbstractDungeon.bossRelicScreen);
+                    button.hb.clicked = true;
+                    return;
+                case SHOP_SCREEN:
+                    clickCancelButton();
+                    return;
+                case GRID:
+                    clickCancelButton();
+            }
+        } finally {
+            invalidateFrameMemo();
         }
     }
 
@@ -336,7 +392,11 @@ public class ChoiceScreenUtils {
     }
 
     public static boolean isConfirmButtonAvailable() {
-        return isConfirmButtonAvailable(getCurrentChoiceType());
+        ChoiceType choiceType = getCurrentChoiceType();
+        if (memoConfirmAvailable == null) {
+            memoConfirmAvailable = isConfirmButtonAvailable(choiceType);
+        }
+        return memoConfirmAvailable;
     }
 
     private static String getConfirmButtonText(ChoiceType choiceType) {
@@ -367,30 +427,34 @@ public class ChoiceScreenUtils {
     }
 
     public static void pressConfirmButton(ChoiceType choiceType) {
-        switch (choiceType) {
-            case CHEST:
-                clickProceedButton();
-                return;
-            case SHOP_ROOM:
-                clickProceedButton();
-                return;
-            case REST:
-                clickProceedButton();
-                return;
-            case COMBAT_REWARD:
-                clickProceedButton();
-                return;
-            case GRID:
-                clickGridScreenConfirmButton();
-                return;
-            case HAND_SELECT:
-                clickHandSelectScreenConfirmButton();
-                return;
-            case GAME_OVER:
-                clickGameOverReturnButton();
-                return;
-            case COMPLETE:
-                clickProceedButton();
+        try {
+            switch (choiceType) {
+                case CHEST:
+                    clickProceedButton();
+                    return;
+                case SHOP_ROOM:
+                    clickProceedButton();
+                    return;
+                case REST:
+                    clickProceedButton();
+                    return;
+                case COMBAT_REWARD:
+                    clickProceedButton();
+                    return;
+                case GRID:
+                    clickGridScreenConfirmButton();
+                    return;
+                case HAND_SELECT:
+                    clickHandSelectScreenConfirmButton();
+                    return;
+                case GAME_OVER:
+                    clickGameOverReturnButton();
+                    return;
+                case COMPLETE:
+                    clickProceedButton();
+            }
+        } finally {
+            invalidateFrameMemo();
         }
     }
 
@@ -410,19 +474,19 @@ public class ChoiceScreenUtils {
     }
 
     public static boolean isBowlAvailable() {
-        SingingBowlButton bowlButton = (SingingBowlButton) ReflectionHacks.getPrivate(AbstractDungeon.cardRewardScreen, CardRewardScreen.class, "bowlButton");
-        return !((boolean) ReflectionHacks.getPrivate(bowlButton, SingingBowlButton.class, "isHidden"));
+        SingingBowlButton bowlButton = ScreenFields.CARD_REWARD_BOWL_BUTTON.get(AbstractDungeon.cardRewardScreen);
+        return !ScreenFields.BOWL_BUTTON_HIDDEN.get(bowlButton);
     }
 
     public static boolean isCardRewardSkipAvailable() {
-        SkipCardButton skipButton = (SkipCardButton) ReflectionHacks.getPrivate(AbstractDungeon.cardRewardScreen, CardRewardScreen.class, "skipButton");
-        return !((boolean) ReflectionHacks.getPrivate(skipButton, SkipCardButton.class, "isHidden"));
+        SkipCardButton skipButton = ScreenFields.CARD_REWARD_SKIP_BUTTON.get(AbstractDungeon.cardRewardScreen);
+        return !ScreenFields.SKIP_BUTTON_HIDDEN.get(skipButton);
     }
 
     public static void makeCardRewardChoice(int choice) {
         ArrayList<String> choices = getCardRewardScreenChoices();
         if(choices.get(choice).equals("bowl")) {
-            SingingBowlButton bowlButton = (SingingBowlButton) ReflectionHacks.getPrivate(AbstractDungeon.cardRewardScreen, CardRewardScreen.class, "bowlButton");
+            SingingBowlButton bowlButton = ScreenFields.CARD_REWARD_BOWL_BUTTON.get(AbstractDungeon.cardRewardScreen);
             bowlButton.onClick();
             AbstractDungeon.cardRewardScreen.closeFromBowlButton();
             AbstractDungeon.closeCurrentScreen();
@@ -450,14 +514,8 @@ public class ChoiceScreenUtils {
         HandCardSelectScreen screen = AbstractDungeon.handCardSelectScreen;
         screen.hoveredCard = AbstractDungeon.player.hand.group.get(choice);
         screen.hoveredCard.setAngle(0.0f, false);
-        try {
-            Method hotkeyCheck = HandCardSelectScreen.class.getDeclaredMethod("selectHoveredCard");
-            hotkeyCheck.setAccessible(true);
-            hotkeyCheck.invoke(screen);
-        } catch(NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
-            e.printStackTrace();
-            throw new RuntimeException("selectHoveredCard method somehow can't be called.");
-        }
+        ScreenFields.selectHoveredCard(screen);
+        invalidateFrameMemo();
     }
 
     private static void clickHandSelectScreenConfirmButton() {
@@ -467,14 +525,14 @@ public class ChoiceScreenUtils {
 
     private static boolean isHandSelectConfirmButtonEnabled() {
         CardSelectConfirmButton button = AbstractDungeon.handCardSelectScreen.button;
-        boolean isHidden = (boolean)ReflectionHacks.getPrivate(button, CardSelectConfirmButton.class, "isHidden");
+        boolean isHidden = ScreenFields.CARD_SELECT_CONFIRM_HIDDEN.get(button);
         boolean isDisabled = button.isDisabled;
         return !(isHidden || isDisabled);
     }
 
     public static ArrayList<AbstractCard> getGridScreenCards() {
         GridCardSelectScreen screen = AbstractDungeon.gridSelectScreen;
-        CardGroup cards = (CardGroup) ReflectionHacks.getPrivate(screen, GridCardSelectScreen.class, "targetGroup");
+        CardGroup cards = ScreenFields.GRID_TARGET_GROUP.get(screen);
         return cards.group;
     }
 
@@ -505,7 +563,7 @@ public class ChoiceScreenUtils {
 
     private static boolean isGridScreenCancelAvailable() {
         GridCardSelectScreen screen = AbstractDungeon.gridSelectScreen;
-        boolean canCancel = (boolean)ReflectionHacks.getPrivate(screen, GridCardSelectScreen.class, "canCancel");
+        boolean canCancel = ScreenFields.GRID_CAN_CANCEL.get(screen);
         if(canCancel && (screen.forPurge || screen.forTransform || screen.forUpgrade || (AbstractDungeon.previousScreen == AbstractDungeon.CurrentScreen.SHOP))) {
             return true;
         } else {
@@ -517,7 +575,7 @@ public class ChoiceScreenUtils {
         GridCardSelectScreen screen = AbstractDungeon.gridSelectScreen;
         if (screen.confirmScreenUp || screen.isJustForConfirming) {
             return true;
-        } else if ((!screen.confirmButton.isDisabled) && (!(boolean)ReflectionHacks.getPrivate(screen.confirmButton, GridSelectConfirmButton.class, "isHidden")) ) {
+        } else if ((!screen.confirmButton.isDisabled) && (!ScreenFields.GRID_CONFIRM_HIDDEN.get(screen.confirmButton)) ) {
             if(screen.forUpgrade || screen.forTransform || screen.forPurge || screen.anyNumber) {
                 return true;
             }
@@ -630,8 +688,8 @@ public class ChoiceScreenUtils {
     public static ArrayList<AbstractCard> getShopScreenCards() {
         ArrayList<AbstractCard> cards = new ArrayList<>();
         ShopScreen screen = AbstractDungeon.shopScreen;
-        ArrayList<AbstractCard> coloredCards = (ArrayList<AbstractCard>) ReflectionHacks.getPrivate(screen, ShopScreen.class, "coloredCards");
-        ArrayList<AbstractCard> colorlessCards = (ArrayList<AbstractCard>) ReflectionHacks.getPrivate(screen, ShopScreen.class, "colorlessCards");
+        ArrayList<AbstractCard> coloredCards = (ArrayList<AbstractCard>) ScreenFields.SHOP_COLORED_CARDS.get(screen);
+        ArrayList<AbstractCard> colorlessCards = (ArrayList<AbstractCard>) ScreenFields.SHOP_COLORLESS_CARDS.get(screen);
         cards.addAll(coloredCards);
         cards.addAll(colorlessCards);
         return cards;
@@ -640,13 +698,13 @@ public class ChoiceScreenUtils {
     @SuppressWarnings("unchecked")
     public static ArrayList<StoreRelic> getShopScreenRelics() {
         ShopScreen screen = AbstractDungeon.shopScreen;
-        return (ArrayList<StoreRelic>) ReflectionHacks.getPrivate(screen, ShopScreen.class, "relics");
+        return (ArrayList<StoreRelic>) ScreenFields.SHOP_RELICS.get(screen);
     }
 
     @SuppressWarnings("unchecked")
     public static ArrayList<StorePotion> getShopScreenPotions() {
         ShopScreen screen = AbstractDungeon.shopScreen;
-        return (ArrayList<StorePotion>) ReflectionHacks.getPrivate(screen, ShopScreen.class, "potions");
+        return (ArrayList<StorePotion>) ScreenFields.SHOP_POTIONS.get(screen);
     }
 
     private static ArrayList<Object> getAvailableShopItems() {
@@ -697,7 +755,7 @@ public class ChoiceScreenUtils {
 
     private static void clickProceedButton() {
         AbstractDungeon.overlayMenu.proceedButton.show();
-        Hitbox hb = (Hitbox) ReflectionHacks.getPrivate(AbstractDungeon.overlayMenu.proceedButton, ProceedButton.class, "hb");
+        Hitbox hb = ScreenFields.PROCEED_BUTTON_HITBOX.get(AbstractDungeon.overlayMenu.proceedButton);
         hb.clicked = true;
     }
 
@@ -756,22 +814,21 @@ public class ChoiceScreenUtils {
     public static ArrayList<MapRoomNode> getMapScreenNodeChoices() {
         ArrayList<MapRoomNode> choices = new ArrayList<>();
         MapRoomNode currMapNode = AbstractDungeon.getCurrMapNode();
-        ArrayList<ArrayList<MapRoomNode>> map = AbstractDungeon.map;
+        DungeonMapIndex index = DungeonMapIndex.get();
         if(!AbstractDungeon.firstRoomChosen) {
-            for(MapRoomNode node : map.get(0)) {
-                if (node.hasEdges()) {
-                    choices.add(node);
-                }
-            }
+            choices.addAll(index.getRow(0));
         } else {
-            for (ArrayList<MapRoomNode> rows : map) {
-                for (MapRoomNode node : rows) {
-                    if (node.hasEdges()) {
-                        boolean normalConnection = currMapNode.isConnectedTo(node);
-                        boolean wingedConnection = currMapNode.wingedIsConnectedTo(node);
-                        if (normalConnection || wingedConnection) {
-                            choices.add(node);
-                        }
+            // Both kinds of connection only reach rows the current node has edges into
+            TreeSet<Integer> edgeRows = new TreeSet<>();
+            for (MapEdge edge : currMapNode.getEdges()) {
+                edgeRows.add(edge.dstY);
+            }
+            for (int y : edgeRows) {
+                for (MapRoomNode node : index.getRow(y)) {
+                    boolean normalConnection = currMapNode.isConnectedTo(node);
+                    boolean wingedConnection = currMapNode.wingedIsConnectedTo(node);
+                    if (normalConnection || wingedConnection) {
+                        choices.add(node);
                     }
                 }
             }
@@ -808,11 +865,11 @@ public class ChoiceScreenUtils {
 
 
     public static EventDialogType getEventDialogType() {
-        boolean genericShown = (boolean) ReflectionHacks.getPrivateStatic(GenericEventDialog.class, "show");
+        boolean genericShown = ScreenFields.GENERIC_EVENT_DIALOG_SHOWN.get(null);
         if (genericShown) {
             return EventDialogType.IMAGE;
         }
-        boolean roomShown = (boolean) ReflectionHacks.getPrivate(AbstractDungeon.getCurrRoom().event.roomEventText, RoomEventDialog.class, "show");
+        boolean roomShown = ScreenFields.ROOM_EVENT_DIALOG_SHOWN.get(AbstractDungeon.getCurrRoom().event.roomEventText);
         if (roomShown) {
             return EventDialogType.ROOM;
         } else {
@@ -855,7 +912,7 @@ public class ChoiceScreenUtils {
             choiceList.add("spin");
         } else if(AbstractDungeon.getCurrRoom().event instanceof GremlinMatchGame) {
             GremlinMatchGame event = (GremlinMatchGame) (AbstractDungeon.getCurrRoom().event);
-            CardGroup gameCardGroup = (CardGroup) ReflectionHacks.getPrivate(event, GremlinMatchGame.class, "cards");
+            CardGroup gameCardGroup = ScreenFields.GREMLIN_MATCH_CARDS.get(event);
             for (AbstractCard c : gameCardGroup.group) {
                 if (c.isFlipped) {
                     choiceList.add(String.format("card%d", GremlinMatchGamePatch.cardPositions.get(c.uuid)));
@@ -871,11 +928,11 @@ public class ChoiceScreenUtils {
             activeButtons.get(choice).pressed = true;
         } else if (AbstractDungeon.getCurrRoom().event instanceof GremlinWheelGame) {
             GremlinWheelGame event = (GremlinWheelGame) AbstractDungeon.getCurrRoom().event;
-            ReflectionHacks.setPrivate(event, GremlinWheelGame.class, "buttonPressed", true);
+            ScreenFields.GREMLIN_WHEEL_BUTTON_PRESSED.set(event, true);
             CardCrawlGame.sound.play("WHEEL");
         } else if (AbstractDungeon.getCurrRoom().event instanceof GremlinMatchGame) {
             GremlinMatchGame event = (GremlinMatchGame) AbstractDungeon.getCurrRoom().event;
-            CardGroup gameCardGroup = (CardGroup) ReflectionHacks.getPrivate(event, GremlinMatchGame.class, "cards");
+            CardGroup gameCardGroup = ScreenFields.GREMLIN_MATCH_CARDS.get(event);
             ArrayList<AbstractCard> pickable = new ArrayList<>();
             for (AbstractCard c : gameCardGroup.group) {
                 if (c.isFlipped) {
@@ -914,7 +971,7 @@ public class ChoiceScreenUtils {
         ArrayList<AbstractCampfireOption> choiceList = new ArrayList<>();
         RestRoom room = (RestRoom) AbstractDungeon.getCurrRoom();
         if(!isRestRoomProceedAvailable()) {
-            ArrayList<AbstractCampfireOption> buttons = (ArrayList<AbstractCampfireOption>) ReflectionHacks.getPrivate(room.campfireUI, CampfireUI.class, "buttons");
+            ArrayList<AbstractCampfireOption> buttons = (ArrayList<AbstractCampfireOption>) ScreenFields.CAMPFIRE_BUTTONS.get(room.campfireUI);
             for (AbstractCampfireOption button : buttons) {
                 if (button.usable) {
                     choiceList.add(button);
@@ -58,58 +58,63 @@ public class CommandExecutor {
             throw new InvalidCommandException("Invalid command: " + tokens[0] + ". Possible commands: " + getAvailableCommands());
         }
         String command_tail = command.substring(tokens[0].length());
-        switch(tokens[0]) {
-            case "play":
-                executePlayCommand(tokens);
-                return true;
-            case "end":
-                executeEndCommand();
-                return true;
-            case "choose":
-                executeChooseCommand(tokens);
-                return true;
-            case "potion":
-                executePotionCommand(tokens);
-                return true;
-            case "confirm":
-            case "proceed":
-                executeConfirmCommand();
-                return true;
-            case "skip":
-            case "cancel":
-            case "return":
-            case "leave":
-                executeCancelCommand();
-                return true;
-            case "start":
-                executeStartCommand(tokens);
-                return true;
-            case "continue":
-                executeContinueCommand(tokens);
-                return false;
-            case "abandon":
-                executeAbandonCommand(tokens);
-                executeStateCommand();
-                return false;
-            case "save":
-                executeSaveCommand(tokens);
-                return false;
-            case "state":
-                executeStateCommand();
-                return false;
-            case "key":
-                executeKeyCommand(tokens);
-                return true;
-            case "click":
-                executeClickCommand(tokens);
-                return true;
-            case "wait":
-                executeWaitCommand(tokens);
-                return true;
+        try {
+            switch(tokens[0]) {
+                case "play":
+                    executePlayCommand(tokens);
+                    return true;
+                case "end":
+                    executeEndCommand();
+                    return true;
+                case "choose":
+                    executeChooseCommand(tokens);
+                    return true;
+                case "potion":
+                    executePotionCommand(tokens);
+                    return true;
+                case "confirm":
+                case "proceed":
+                    executeConfirmCommand();
+                    return true;
+                case "skip":
+                case "cancel":
+                case "return":
+                case "leave":
+                    executeCancelCommand();
+                    return true;
+                case "start":
+                    executeStartCommand(tokens);
+                    return true;
+                case "continue":
+                    executeContinueCommand(tokens);
+                    return false;
+                case "abandon":
+                    executeAbandonCommand(tokens);
+                    executeStateCommand();
+                    return false;
+                case "save":
+                    executeSaveCommand(tokens);
+                    return false;
+                case "state":
+                    executeStateCommand();
+                    return false;
+                case "key":
+                    executeKeyCommand(tokens);
+                    return true;
+                case "click":
+                    executeClickCommand(tokens);
+                    return true;
+                case "wait":
+                    executeWaitCommand(tokens);
+                    return true;
 
-            default:
-                logger.info("This should never happen.");
-                throw new InvalidCommandException("Command not recognized.");
+                default:
+                    logger.info("This should never happen.");
+                    throw new InvalidCommandException("Command not recognized.");
+            }
+        } finally {
+            // Commands can change the screen within this frame
+            ChoiceScreenUtils.invalidateFrameMemo();
         }
     }
 
@@ -0,0 +1,179 @@
+package mcpthespire;
+
+import com.megacrit.cardcrawl.core.Settings;
+import com.megacrit.cardcrawl.dungeons.AbstractDungeon;
+import com.megacrit.cardcrawl.map.MapEdge;
+import com.megacrit.cardcrawl.map.MapRoomNode;
+import mcpthespire.view.JsonFragment;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The current act's map serialized for the "map" state section, plus an adjacency index for
+ * next-node lookups. The map only changes between acts, so this is built once per act and kept
+ * until the dungeon id, seed or map changes. Entering a "?" node replaces its room (and symbol),
+ * so moving to another node rebuilds it as well. Game thread only.
+ */
+final class DungeonMapIndex {
+
+    private static DungeonMapIndex cached;
+
+    private final String dungeonId;
+    private final Long seed;
+    private final ArrayList<ArrayList<MapRoomNode>> map;
+    private final MapRoomNode currentNode;
+    private final boolean firstRoomChosen;
+
+    // Per row, the nodes that are on some path (have edges), in x order
+    private final List<List<MapRoomNode>> rows;
+    private final Map<MapRoomNode, List<MapRoomNode>> children;
+    private final JsonFragment mapJson;
+    // Built on first use; only plan_route needs it
+    private MapGraph graph;
+
+    private DungeonMapIndex() {
+        this.dungeonId = AbstractDungeon.id;
+        this.seed = Settings.seed;
+        this.map = AbstractDungeon.map;
+        this.currentNode = AbstractDungeon.getCurrMapNode();
+        this.firstRoomChosen = AbstractDungeon.firstRoomChosen;
+
+        List<List<MapRoomNode>> rows = new ArrayList<>();
+        Map<MapRoomNode, List<MapRoomNode>> children = new IdentityHashMap<>();
+        ArrayList<Object> jsonMap = new ArrayList<>();
+        for (ArrayList<MapRoomNode> layer : map) {
+            List<MapRoomNode> row = new ArrayList<>();
+            for (MapRoomNode node : layer) {
+                if (node.hasEdges()) {
+                    row.add(node);
+                    HashMap<String, Object> json_node = GameStateConverter.convertMapRoomNodeToJson(node);
+                    ArrayList<Object> json_children = new ArrayList<>();
+                    ArrayList<Object> json_parents = new ArrayList<>();
+                    List<MapRoomNode> nodeChildren = new ArrayList<>();
+                    for (MapEdge edge : node.getEdges()) {
+                        if (edge.srcX == node.x && edge.srcY == node.y) {
+                            json_children.add(GameStateConverter.convertCoordinatesToJson(edge.dstX, edge.dstY));
+                            MapRoomNode child = getNode(edge.dstX, edge.dstY);
+                            // Edges into the boss room lead off the map
+                            if (child != null) {
+                                nodeChildren.add(child);
+                            }
+                        } else {
+                            json_parents.add(GameStateConverter.convertCoordinatesToJson(edge.srcX, edge.srcY));
+                        }
+                    }
+                    json_node.put("parents", json_parents);
+                    json_node.put("children", json_children);
+                    jsonMap.add(json_node);
+                    children.put(node, Collections.unmodifiableList(nodeChildren));
+                }
+            }
+            rows.add(Collections.unmodifiableList(row));
+        }
+        this.rows = Collections.unmodifiableList(rows);
+        this.children = children;
+        this.mapJson = JsonFragment.of(jsonMap);
+    }
+
+    /**
+     * The index for the current map, rebuilt if the act, seed, map or current node has changed.
+     */
+    static DungeonMapIndex get() {
+        DungeonMapIndex index = cached;
+        if (index == null || !index.isCurrent()) {
+            index = new DungeonMapIndex();
+            cached = index;
+        }
+        return index;
+    }
+
+    private boolean isCurrent() {
+        return map == AbstractDungeon.map
+            && currentNode == AbstractDungeon.getCurrMapNode()
+            && firstRoomChosen == AbstractDungeon.firstRoomChosen
+            && Objects.equals(dungeonId, AbstractDungeon.id)
+            && Objects.equals(seed, Settings.seed);
+    }
+
+    private MapRoomNode getNode(int x, int y) {
+        if (y < 0 || y >= map.size()) {
+            return null;
+        }
+        for (MapRoomNode node : map.get(y)) {
+            if (node.x == x) {
+                return node;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The "map" state section: every node on a path with its symbol, parents and children.
+     */
+    JsonFragment getMapJson() {
+        return mapJson;
+    }
+
+    /**
+     * Nodes in row {@code y} that are on some path, in x order. Empty for rows off the map.
+     */
+    List<MapRoomNode> getRow(int y) {
+        if (y < 0 || y >= rows.size()) {
+            return Collections.emptyList();
+        }
+        return rows.get(y);
+    }
+
+    /**
+     * Nodes that {@code node} has an edge to, not counting the boss room.
+     */
+    List<MapRoomNode> getChildren(MapRoomNode node) {
+        List<MapRoomNode> nodeChildren = children.get(node);
+        return nodeChildren != null ? nodeChildren : Collections.<MapRoomNode>emptyList();
+    }
+
+    /**
+     * Immutable copy of the paths for route planning.
+     */
+    MapGraph getGraph() {
+        if (graph == null) {
+            List<MapGraph.Node> nodes = new ArrayList<>();
+            Map<MapRoomNode, MapGraph.Node> copies = new IdentityHashMap<>();
+            for (List<MapRoomNode> row : rows) {
+                for (MapRoomNode node : row) {
+                    MapGraph.Node copy = new MapGraph.Node(node.x, node.y, node.getRoomSymbol(true), node.hasEmeraldKey);
+                    nodes.add(copy);
+                    copies.put(node, copy);
+                }
+            }
+            List<List<MapGraph.Node>> nodeChildren = new ArrayList<>();
+            for (List<MapRoomNode> row : rows) {
+                for (MapRoomNode node : row) {
+                    nodeChildren.add(copiesOf(getChildren(node), copies));
+                }
+            }
+            List<MapGraph.Node> nextNodes = firstRoomChosen
+                ? copiesOf(getChildren(currentNode), copies)
+                : copiesOf(getRow(0), copies);
+            graph = new MapGraph(nodes, nodeChildren, nextNodes, firstRoomChosen ? copies.get(currentNode) : null);
+        }
+        return graph;
+    }
+
+    private static List<MapGraph.Node> copiesOf(List<MapRoomNode> nodes, Map<MapRoomNode, MapGraph.Node> copies) {
+        List<MapGraph.Node> result = new ArrayList<>();
+        for (MapRoomNode node : nodes) {
+            MapGraph.Node copy = copies.get(node);
+            if (copy != null) {
+                result.add(copy);
+            }
+        }
+        return result;
+    }
+}
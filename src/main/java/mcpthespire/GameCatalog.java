@@ -0,0 +1,256 @@
+package mcpthespire;
+
+import basemod.ReflectionHacks;
+import com.megacrit.cardcrawl.helpers.CardLibrary;
+import com.megacrit.cardcrawl.helpers.PotionHelper;
+import com.megacrit.cardcrawl.localization.LocalizedStrings;
+import com.megacrit.cardcrawl.localization.MonsterStrings;
+import com.megacrit.cardcrawl.relics.AbstractRelic;
+import com.megacrit.cardcrawl.helpers.RelicLibrary;
+import mcpthespire.view.JsonFragment;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+/**
+ * Card, relic, potion and monster reference data, serialized once after the game has loaded its
+ * libraries. get_card_info and get_relic_info answer from here with a map lookup instead of
+ * instantiating and upgrading cards on every request, and get_catalog pages through all of it.
+ */
+public final class GameCatalog {
+
+    private static final Logger logger = LogManager.getLogger(GameCatalog.class.getName());
+
+    // Section names, in the order get_catalog pages through them
+    public static final String SECTION_CARDS = "cards";
+    public static final String SECTION_RELICS = "relics";
+    public static final String SECTION_POTIONS = "potions";
+    public static final String SECTION_MONSTERS = "monsters";
+
+    private static volatile GameCatalog instance;
+
+    // Entries by id, sorted so the catalog serializes the same way every time
+    private final Map<String, JsonFragment> cards;
+    private final Map<String, JsonFragment> relics;
+    private final Map<String, JsonFragment> potions;
+    private final Map<String, JsonFragment> monsters;
+    // Every entry in page order, and the SHA-256 of all of them
+    private final List<Entry> entries;
+    private final String hash;
+
+    private GameCatalog(Map<String, JsonFragment> cards, Map<String, JsonFragment> relics,
+                        Map<String, JsonFragment> potions, Map<String, JsonFragment> monsters) {
+        this.cards = Collections.unmodifiableMap(cards);
+        this.relics = Collections.unmodifiableMap(relics);
+        this.potions = Collections.unmodifiableMap(potions);
+        this.monsters = Collections.unmodifiableMap(monsters);
+
+        List<Entry> all = new ArrayList<>();
+        addEntries(all, SECTION_CARDS, cards);
+        addEntries(all, SECTION_RELICS, relics);
+        addEntries(all, SECTION_POTIONS, potions);
+        addEntries(all, SECTION_MONSTERS, monsters);
+        this.entries = Collections.unmodifiableList(all);
+        this.hash = computeHash(all);
+    }
+
+    private static void addEntries(List<Entry> entries, String section, Map<String, JsonFragment> byId) {
+        for (Map.Entry<String, JsonFragment> entry : byId.entrySet()) {
+            entries.add(new Entry(section, entry.getKey(), entry.getValue()));
+        }
+    }
+
+    private static String computeHash(List<Entry> entries) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        for (Entry entry : entries) {
+            digest.update((entry.section + "\n" + entry.id + "\n" + entry.data.getJson() + "\n").getBytes(StandardCharsets.UTF_8));
+        }
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * Build the catalog from the game's card, relic and potion libraries. Game thread only, after
+     * every mod has registered its content (receivePostInitialize). An entry that fails to build
+     * (e.g. a modded card that throws from its constructor) is left out and looked up live instead.
+     */
+    public static void build() {
+        List<String> skipped = new ArrayList<>();
+
+        Map<String, JsonFragment> cards = new TreeMap<>();
+        for (String cardId : new ArrayList<>(CardLibrary.cards.keySet())) {
+            addEntry(cards, skipped, SECTION_CARDS, cardId, () -> GameStateConverter.getCardInfo(cardId));
+        }
+
+        Map<String, JsonFragment> relics = new TreeMap<>();
+        for (AbstractRelic relic : getAllRelics()) {
+            String relicId = relic.relicId;
+            if (!relics.containsKey(relicId) && !skipped.contains(SECTION_RELICS + "/" + relicId)) {
+                addEntry(relics, skipped, SECTION_RELICS, relicId, () -> GameStateConverter.getRelicInfo(relicId));
+            }
+        }
+
+        Map<String, JsonFragment> potions = new TreeMap<>();
+        for (String potionId : PotionHelper.getPotions(null, true)) {
+            if (!potions.containsKey(potionId) && !skipped.contains(SECTION_POTIONS + "/" + potionId)) {
+                addEntry(potions, skipped, SECTION_POTIONS, potionId, () -> GameStateConverter.getPotionInfo(potionId));
+            }
+        }
+
+        Map<String, JsonFragment> monsters = new TreeMap<>();
+        for (Map.Entry<String, MonsterStrings> entry : getMonsterStrings().entrySet()) {
+            addEntry(monsters, skipped, SECTION_MONSTERS, entry.getKey(), () -> getMonsterInfo(entry.getKey(), entry.getValue()));
+        }
+
+        GameCatalog catalog = new GameCatalog(cards, relics, potions, monsters);
+        instance = catalog;
+        logger.info("Built catalog: " + cards.size() + " cards, " + relics.size() + " relics, " + potions.size()
+            + " potions, " + monsters.size() + " monsters (sha256 " + catalog.hash + ")");
+        if (!skipped.isEmpty()) {
+            logger.warn("Left out of the catalog: " + String.join(", ", skipped));
+        }
+    }
+
+    private static void addEntry(Map<String, JsonFragment> section, List<String> skipped, String sectionName,
+                                 String id, Supplier<Object> info) {
+        try {
+            section.put(id, JsonFragment.of(info.get()));
+        } catch (RuntimeException | LinkageError e) {
+            skipped.add(sectionName + "/" + id);
+            logger.warn("Could not build catalog entry " + sectionName + "/" + id, e);
+        }
+    }
+
+    /**
+     * Monsters have no library to enumerate, but every one (mods included) registers its
+     * localized name and move names.
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<String, MonsterStrings> getMonsterStrings() {
+        try {
+            Map<String, MonsterStrings> strings = (Map<String, MonsterStrings>) ReflectionHacks.getPrivateStatic(LocalizedStrings.class, "monsters");
+            if (strings != null) {
+                return strings;
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Could not read monster strings, catalog will have no monsters", e);
+        }
+        return Collections.emptyMap();
+    }
+
+    private static HashMap<String, Object> getMonsterInfo(String monsterId, MonsterStrings strings) {
+        HashMap<String, Object> result = new HashMap<>();
+        result.put("id", monsterId);
+        result.put("name", strings.NAME);
+        if (strings.MOVES != null && strings.MOVES.length > 0) {
+            result.put("moves", Arrays.asList(strings.MOVES));
+        }
+        return result;
+    }
+
+    /**
+     * The catalog, or null until it has been built.
+     */
+    public static GameCatalog get() {
+        return instance;
+    }
+
+    /**
+     * SHA-256 of every entry. It changes only when the game or a mod adds or changes content.
+     */
+    public String getHash() {
+        return hash;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Up to {@code limit} entries starting at {@code cursor} (an index into the whole catalog),
+     * grouped by section and keyed by id. Sections with no entries on this page are left out.
+     */
+    public Map<String, Map<String, JsonFragment>> getPage(int cursor, int limit) {
+        Map<String, Map<String, JsonFragment>> page = new LinkedHashMap<>();
+        int end = (int) Math.min(entries.size(), (long) cursor + limit);
+        for (int i = cursor; i < end; i++) {
+            Entry entry = entries.get(i);
+            Map<String, JsonFragment> section = page.get(entry.section);
+            if (section == null) {
+                section = new LinkedHashMap<>();
+                page.put(entry.section, section);
+            }
+            section.put(entry.id, entry.data);
+        }
+        return page;
+    }
+
+    private static List<AbstractRelic> getAllRelics() {
+        List<AbstractRelic> all = new ArrayList<>();
+        for (List<AbstractRelic> tier : Arrays.asList(
+                RelicLibrary.starterList, RelicLibrary.commonList, RelicLibrary.uncommonList, RelicLibrary.rareList,
+                RelicLibrary.bossList, RelicLibrary.specialList, RelicLibrary.shopList)) {
+            all.addAll(tier);
+        }
+        return all;
+    }
+
+    /**
+     * Card info for get_card_info. Ids missing from the catalog (or before it is built) are looked up live.
+     */
+    public static Object getCardInfo(String cardId) {
+        GameCatalog catalog = instance;
+        JsonFragment entry = catalog == null ? null : catalog.cards.get(cardId);
+        return entry != null ? entry : GameStateConverter.getCardInfo(cardId);
+    }
+
+    /**
+     * Relic info for get_relic_info. Ids missing from the catalog (or before it is built) are looked up live.
+     */
+    public static Object getRelicInfo(String relicId) {
+        GameCatalog catalog = instance;
+        JsonFragment entry = catalog == null ? null : catalog.relics.get(relicId);
+        return entry != null ? entry : GameStateConverter.getRelicInfo(relicId);
+    }
+
+    /**
+     * Potion info. Ids missing from the catalog (or before it is built) are looked up live.
+     */
+    public static Object getPotionInfo(String potionId) {
+        GameCatalog catalog = instance;
+        JsonFragment entry = catalog == null ? null : catalog.potions.get(potionId);
+        return entry != null ? entry : GameStateConverter.getPotionInfo(potionId);
+    }
+
+    private static final class Entry {
+        final String section;
+        final String id;
+        final JsonFragment data;
+
+        Entry(String section, String id, JsonFragment data) {
+            this.section = section;
+            this.id = id;
+            this.data = data;
+        }
+    }
+}
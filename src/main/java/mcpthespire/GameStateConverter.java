@@ -4,20 +4,19 @@ import basemod.ReflectionHacks;
 import com.megacrit.cardcrawl.actions.GameActionManager;
 import com.megacrit.cardcrawl.cards.AbstractCard;
 import com.megacrit.cardcrawl.helpers.CardLibrary;
+import com.megacrit.cardcrawl.helpers.PotionHelper;
 import com.megacrit.cardcrawl.helpers.RelicLibrary;
 import com.megacrit.cardcrawl.characters.AbstractPlayer;
 import com.megacrit.cardcrawl.core.AbstractCreature;
 import com.megacrit.cardcrawl.core.Settings;
 import com.megacrit.cardcrawl.dungeons.AbstractDungeon;
 import com.megacrit.cardcrawl.events.AbstractEvent;
-import com.megacrit.cardcrawl.map.MapEdge;
 import com.megacrit.cardcrawl.map.MapRoomNode;
 import com.megacrit.cardcrawl.monsters.AbstractMonster;
 import com.megacrit.cardcrawl.monsters.EnemyMoveInfo;
 import com.megacrit.cardcrawl.neow.NeowEvent;
 import com.megacrit.cardcrawl.orbs.AbstractOrb;
 import com.megacrit.cardcrawl.potions.AbstractPotion;
-import com.megacrit.cardcrawl.potions.PotionSlot;
 import com.megacrit.cardcrawl.powers.AbstractPower;
 import com.megacrit.cardcrawl.relics.AbstractRelic;
 import com.megacrit.cardcrawl.relics.RunicDome;
@@ -32,10 +31,21 @@ import com.megacrit.cardcrawl.shop.StoreRelic;
 import com.megacrit.cardcrawl.ui.buttons.LargeDialogOptionButton;
 import com.megacrit.cardcrawl.ui.panels.EnergyPanel;
 import mcpthespire.patches.UpdateBodyTextPatch;
+import mcpthespire.view.CardView;
+import mcpthespire.view.MonsterView;
+import mcpthespire.view.OrbView;
+import mcpthespire.view.PlayerView;
+import mcpthespire.view.PotionView;
+import mcpthespire.view.PowerView;
+import mcpthespire.view.Price;
+import mcpthespire.view.RelicView;
 
 import java.lang.reflect.Field;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Set;
 
 public class GameStateConverter {
@@ -193,67 +203,118 @@ public class GameStateConverter {
         return result;
     }
 
+    /**
+     * Get potion information by potion ID.
+     * Returns potion description, rarity and whether it needs a target.
+     */
+    public static HashMap<String, Object> getPotionInfo(String potionId) {
+        HashMap<String, Object> result = new HashMap<>();
+        AbstractPotion potion = PotionHelper.getPotion(potionId);
+        if (potion == null) {
+            result.put("error", "Potion not found: " + potionId);
+            return result;
+        }
+        result.put("id", potion.ID);
+        result.put("name", potion.name);
+        result.put("rarity", potion.rarity.name());
+        result.put("description", potion.description);
+        if (potion.isThrown) result.put("requires_target", true);
+
+        return result;
+    }
+
+    /**
+     * Sections of the game state that get_game_state can include. "map" is only sent when asked for.
+     */
+    public static final List<String> GAME_STATE_SECTIONS = Collections.unmodifiableList(
+        Arrays.asList("player", "deck", "relics", "potions", "map", "combat", "screen"));
+
+    public static boolean isSectionIncluded(String section, Set<String> include) {
+        if (include == null || include.isEmpty()) {
+            return !"map".equals(section);
+        }
+        return include.contains(section);
+    }
+
     private static HashMap<String, Object> getGameState(Set<String> include) {
-        HashMap<String, Object> state = new HashMap<>();
-        boolean all = (include == null || include.isEmpty());
+        HashMap<String, Object> state = getGameStateBase();
+        for (String section : GAME_STATE_SECTIONS) {
+            if (isSectionIncluded(section, include)) {
+                state.putAll(getGameStateSection(section));
+            }
+        }
+        return state;
+    }
 
-        // Always include basic screen info
+    /**
+     * Fields of the game state that are always included: basic screen info.
+     */
+    public static HashMap<String, Object> getGameStateBase() {
+        HashMap<String, Object> state = new HashMap<>();
         state.put("screen_type", ChoiceScreenUtils.getCurrentChoiceType());
         state.put("room_phase", AbstractDungeon.getCurrRoom().phase.toString());
+        return state;
+    }
 
-        // Player section: hp, gold, class, floor, etc.
-        if (all || include.contains("player")) {
-            state.put("current_hp", AbstractDungeon.player.currentHealth);
-            state.put("max_hp", AbstractDungeon.player.maxHealth);
-            state.put("floor", AbstractDungeon.floorNum);
-            state.put("act", AbstractDungeon.actNum);
-            state.put("gold", AbstractDungeon.player.gold);
-            state.put("class", AbstractDungeon.player.chosenClass.name());
-            state.put("ascension_level", AbstractDungeon.ascensionLevel);
-            state.put("seed", Settings.seed);
-            if (!AbstractDungeon.bossList.isEmpty()) {
-                state.put("act_boss", AbstractDungeon.bossList.get(0));
-            }
-        }
+    /**
+     * Fields of one game state section (see {@link #GAME_STATE_SECTIONS}).
+     */
+    public static HashMap<String, Object> getGameStateSection(String section) {
+        HashMap<String, Object> state = new HashMap<>();
+        switch (section) {
+            // Player section: hp, gold, class, floor, etc.
+            case "player":
+                state.put("current_hp", AbstractDungeon.player.currentHealth);
+                state.put("max_hp", AbstractDungeon.player.maxHealth);
+                state.put("floor", AbstractDungeon.floorNum);
+                state.put("act", AbstractDungeon.actNum);
+                state.put("gold", AbstractDungeon.player.gold);
+                state.put("class", AbstractDungeon.player.chosenClass.name());
+                state.put("ascension_level", AbstractDungeon.ascensionLevel);
+                state.put("seed", Settings.seed);
+                if (!AbstractDungeon.bossList.isEmpty()) {
+                    state.put("act_boss", AbstractDungeon.bossList.get(0));
+                }
+                break;
 
-        // Deck section
-        if (all || include.contains("deck")) {
-            state.put("deck", convertDeckToJson(AbstractDungeon.player.masterDeck.group));
-        }
+            case "deck":
+                state.put("deck", convertDeckToJson(AbstractDungeon.player.masterDeck.group));
+                break;
 
-        // Relics section
-        if (all || include.contains("relics")) {
-            state.put("relics", convertRelicsToJson(AbstractDungeon.player.relics));
-        }
+            case "relics":
+                state.put("relics", convertRelicsToJson(AbstractDungeon.player.relics));
+                break;
 
-        // Potions section
-        if (all || include.contains("potions")) {
-            state.put("potions", convertPotionsToJson(AbstractDungeon.player.potions));
-        }
+            case "potions":
+                state.put("potions", convertPotionsToJson(AbstractDungeon.player.potions));
+                break;
 
-        // Map section - only include when explicitly requested (map data is large and static)
-        if (include != null && include.contains("map")) {
-            state.put("map", convertMapToJson());
-        }
+            // Map section - large and static, so only sent when explicitly requested
+            case "map":
+                state.put("map", DungeonMapIndex.get().getMapJson());
+                break;
 
-        // Combat section: hand, monsters, energy, etc.
-        if (all || include.contains("combat")) {
-            if (AbstractDungeon.getCurrRoom().phase.equals(AbstractRoom.RoomPhase.COMBAT)) {
-                state.put("combat_state", getCombatState());
-            }
-        }
+            // Combat section: hand, monsters, energy, etc.
+            case "combat":
+                if (AbstractDungeon.getCurrRoom().phase.equals(AbstractRoom.RoomPhase.COMBAT)) {
+                    state.put("combat_state", getCombatState());
+                }
+                break;
+
+            // Screen section: choices, screen_state, buttons
+            case "screen":
+                state.put("screen_name", AbstractDungeon.screen.name());
+                state.put("is_screen_up", AbstractDungeon.isScreenUp);
+                state.put("room_type", AbstractDungeon.getCurrRoom().getClass().getSimpleName());
+                if (CommandExecutor.isChooseCommandAvailable()) {
+                    state.put("choice_list", ChoiceScreenUtils.getCurrentChoiceList());
+                }
+                state.put("screen_state", getScreenState());
+                break;
 
-        // Screen section: choices, screen_state, buttons
-        if (all || include.contains("screen")) {
-            state.put("screen_name", AbstractDungeon.screen.name());
-            state.put("is_screen_up", AbstractDungeon.isScreenUp);
-            state.put("room_type", AbstractDungeon.getCurrRoom().getClass().getSimpleName());
-            if (CommandExecutor.isChooseCommandAvailable()) {
-                state.put("choice_list", ChoiceScreenUtils.getCurrentChoiceList());
-            }
-            state.put("screen_state", getScreenState());
+            default:
+                throw new IllegalArgumentException("Unknown game state section: " + section);
         }
-
         return state;
     }
 
@@ -418,19 +479,13 @@ public class GameStateConverter {
         ArrayList<Object> shopRelics = new ArrayList<>();
         ArrayList<Object> shopPotions = new ArrayList<>();
         for(AbstractCard card : ChoiceScreenUtils.getShopScreenCards()) {
-            HashMap<String, Object> jsonCard = convertCardToJson(card);
-            jsonCard.put("price", card.price);
-            shopCards.add(jsonCard);
+            shopCards.add(convertCardToJson(card, card.price));
         }
         for(StoreRelic relic : ChoiceScreenUtils.getShopScreenRelics()) {
-            HashMap<String, Object> jsonRelic = convertRelicToJson(relic.relic);
-            jsonRelic.put("price", relic.price);
-            shopRelics.add(jsonRelic);
+            shopRelics.add(new RelicView(relic.relic, relic.price));
         }
         for(StorePotion potion : ChoiceScreenUtils.getShopScreenPotions()) {
-            HashMap<String, Object> jsonPotion = convertPotionToJson(potion.potion);
-            jsonPotion.put("price", potion.price);
-            shopPotions.add(jsonPotion);
+            shopPotions.add(new PotionView(potion.potion, potion.price));
         }
         state.put("cards", shopCards);
         state.put("relics", shopRelics);
@@ -573,306 +628,185 @@ public class GameStateConverter {
         return state;
     }
 
-    private static ArrayList<Object> convertMapToJson() {
-        ArrayList<ArrayList<MapRoomNode>> map = AbstractDungeon.map;
-        ArrayList<Object> jsonMap = new ArrayList<>();
-        for(ArrayList<MapRoomNode> layer : map) {
-            for(MapRoomNode node : layer) {
-                if(node.hasEdges()) {
-                    HashMap<String, Object> json_node = convertMapRoomNodeToJson(node);
-                    ArrayList<Object> json_children = new ArrayList<>();
-                    ArrayList<Object> json_parents = new ArrayList<>();
-                    for(MapEdge edge : node.getEdges()) {
-                        if (edge.srcX == node.x && edge.srcY == node.y) {
-                            json_children.add(convertCoordinatesToJson(edge.dstX, edge.dstY));
-                        } else {
-                            json_parents.add(convertCoordinatesToJson(edge.srcX, edge.srcY));
-                        }
-                    }
-
-                    json_node.put("parents", json_parents);
-                    json_node.put("children", json_children);
-                    jsonMap.add(json_node);
-                }
-            }
-        }
-        return jsonMap;
-    }
-
-    private static HashMap<String, Object> convertCoordinatesToJson(int x, int y) {
+    static HashMap<String, Object> convertCoordinatesToJson(int x, int y) {
         HashMap<String, Object> jsonNode = new HashMap<>();
         jsonNode.put("x", x);
         jsonNode.put("y", y);
         return jsonNode;
     }
 
-    private static HashMap<String, Object> convertMapRoomNodeToJson(MapRoomNode node) {
+    static HashMap<String, Object> convertMapRoomNodeToJson(MapRoomNode node) {
         HashMap<String, Object> jsonNode = convertCoordinatesToJson(node.x, node.y);
         jsonNode.put("symbol", node.getRoomSymbol(true));
         return jsonNode;
     }
 
-    private static HashMap<String, Object> convertCardToJson(AbstractCard card) {
-        HashMap<String, Object> jsonCard = new HashMap<>();
-        // Essential fields - always include
-        jsonCard.put("name", card.name);
-        jsonCard.put("uuid", card.uuid.toString());
-        jsonCard.put("id", card.cardID);
-        jsonCard.put("type", card.type.name());
-        jsonCard.put("cost", card.costForTurn);
-
-        // Upgrades - only if upgraded
-        if (card.timesUpgraded > 0) {
-            jsonCard.put("upgrades", card.timesUpgraded);
-        }
+    private static CardView convertCardToJson(AbstractCard card) {
+        return convertCardToJson(card, Price.NONE);
+    }
 
+    private static CardView convertCardToJson(AbstractCard card, int price) {
         // Playability - only in combat context
+        Boolean isPlayable = null;
         if (AbstractDungeon.getMonsters() != null) {
-            jsonCard.put("is_playable", card.canUse(AbstractDungeon.player, null));
-        }
-
-        // Targeting
-        boolean hasTarget = card.target == AbstractCard.CardTarget.SELF_AND_ENEMY || card.target == AbstractCard.CardTarget.ENEMY;
-        if (hasTarget) {
-            jsonCard.put("has_target", true);
+            isPlayable = card.canUse(AbstractDungeon.player, null);
         }
-
-        // Exhaust - only if true
-        if (card.exhaust) {
-            jsonCard.put("exhausts", true);
-        }
-
-        // Numeric values - only include if non-zero
-        if (card.damage > 0) {
-            jsonCard.put("damage", card.damage);
-            // Only include base if different from current (indicates modification)
-            if (card.baseDamage != card.damage) {
-                jsonCard.put("base_damage", card.baseDamage);
-            }
-        }
-        if (card.block > 0) {
-            jsonCard.put("block", card.block);
-            if (card.baseBlock != card.block) {
-                jsonCard.put("base_block", card.baseBlock);
-            }
-        }
-        if (card.magicNumber > 0) {
-            jsonCard.put("magic_number", card.magicNumber);
-            if (card.baseMagicNumber != card.magicNumber) {
-                jsonCard.put("base_magic_number", card.baseMagicNumber);
-            }
-        }
-        if (card.heal > 0) {
-            jsonCard.put("heal", card.heal);
-        }
-        if (card.draw > 0) {
-            jsonCard.put("draw", card.draw);
-        }
-        if (card.discard > 0) {
-            jsonCard.put("discard", card.discard);
-        }
-        if (card.misc != 0) {
-            jsonCard.put("misc", card.misc);
-        }
-
-        return jsonCard;
+        return new CardView(card, isPlayable, price);
     }
 
-    private static HashMap<String, Object> convertMonsterToJson(AbstractMonster monster) {
-        HashMap<String, Object> jsonMonster = new HashMap<>();
-        // Essential fields
-        jsonMonster.put("id", monster.id);
-        jsonMonster.put("name", monster.name);
-        jsonMonster.put("current_hp", monster.currentHealth);
-        jsonMonster.put("max_hp", monster.maxHealth);
-        jsonMonster.put("is_gone", monster.isDeadOrEscaped());
-
+    private static MonsterView convertMonsterToJson(AbstractMonster monster) {
+        String intent;
+        int moveDamage = 0;
+        int moveHits = 1;
         // Intent - hidden with Runic Dome
         if (AbstractDungeon.player.hasRelic(RunicDome.ID)) {
-            jsonMonster.put("intent", AbstractMonster.Intent.NONE);
+            intent = AbstractMonster.Intent.NONE.name();
         } else {
-            jsonMonster.put("intent", monster.intent.name());
+            intent = monster.intent.name();
             EnemyMoveInfo moveInfo = (EnemyMoveInfo)ReflectionHacks.getPrivate(monster, AbstractMonster.class, "move");
             if (moveInfo != null) {
-                // Combine move info into a single object for cleaner output
-                HashMap<String, Object> move = new HashMap<>();
                 int intentDmg = (int)ReflectionHacks.getPrivate(monster, AbstractMonster.class, "intentDmg");
-                int adjustedDamage = moveInfo.baseDamage > 0 ? intentDmg : moveInfo.baseDamage;
-                if (adjustedDamage > 0) {
-                    move.put("damage", adjustedDamage);
-                    int hits = moveInfo.isMultiDamage ? moveInfo.multiplier : 1;
-                    if (hits > 1) {
-                        move.put("hits", hits);
-                    }
-                }
-                if (!move.isEmpty()) {
-                    jsonMonster.put("move", move);
-                }
+                moveDamage = moveInfo.baseDamage > 0 ? intentDmg : moveInfo.baseDamage;
+                moveHits = moveInfo.isMultiDamage ? moveInfo.multiplier : 1;
             }
         }
-
-        // Conditional fields - only include if relevant
-        if (monster.halfDead) {
-            jsonMonster.put("half_dead", true);
-        }
-        if (monster.currentBlock > 0) {
-            jsonMonster.put("block", monster.currentBlock);
-        }
-
-        // Powers - only include if monster has any
-        if (!monster.powers.isEmpty()) {
-            jsonMonster.put("powers", convertCreaturePowersToJson(monster));
-        }
-
-        return jsonMonster;
+        return new MonsterView(monster.id, monster.name, monster.currentHealth, monster.maxHealth,
+                monster.isDeadOrEscaped(), intent, moveDamage, moveHits, monster.halfDead, monster.currentBlock,
+                convertCreaturePowersToJson(monster));
     }
 
-    private static HashMap<String, Object> convertPlayerToJson(AbstractPlayer player) {
-        HashMap<String, Object> jsonPlayer = new HashMap<>();
-        // Essential fields
-        jsonPlayer.put("current_hp", player.currentHealth);
-        jsonPlayer.put("max_hp", player.maxHealth);
-        jsonPlayer.put("current_energy", EnergyPanel.totalCount);
-        jsonPlayer.put("max_energy", player.energy.energy);
-
-        // Conditional fields
-        if (player.currentBlock > 0) {
-            jsonPlayer.put("block", player.currentBlock);
-        }
-        if (!player.powers.isEmpty()) {
-            jsonPlayer.put("powers", convertCreaturePowersToJson(player));
-        }
-
+    private static PlayerView convertPlayerToJson(AbstractPlayer player) {
         // Orbs - only for Defect (or characters with orb slots)
+        List<OrbView> orbs = Collections.emptyList();
         if (player.orbs != null && !player.orbs.isEmpty() && player.maxOrbs > 0) {
-            jsonPlayer.put("orbs", convertOrbsToJson(player.orbs));
+            orbs = convertOrbsToJson(player.orbs);
         }
-
         // Stance - only if not neutral (Watcher mechanic)
+        String stance = null;
         if (player.stance != null && !"Neutral".equals(player.stance.ID)) {
-            jsonPlayer.put("stance", player.stance.ID);
+            stance = player.stance.ID;
         }
-
-        return jsonPlayer;
+        return new PlayerView(player.currentHealth, player.maxHealth, EnergyPanel.totalCount, player.energy.energy,
+                player.currentBlock, convertCreaturePowersToJson(player), orbs, stance);
     }
 
-    private static ArrayList<Object> convertOrbsToJson(ArrayList<AbstractOrb> orbs) {
-        ArrayList<Object> result = new ArrayList<>();
+    private static ArrayList<OrbView> convertOrbsToJson(ArrayList<AbstractOrb> orbs) {
+        ArrayList<OrbView> result = new ArrayList<>();
         for (AbstractOrb orb : orbs) {
-            result.add(convertOrbToJson(orb));
+            result.add(new OrbView(orb));
         }
         return result;
     }
 
-    private static Object getFieldIfExists(Object object, String fieldName) {
-        Class objectClass = object.getClass();
-        for (Field field : objectClass.getDeclaredFields()) {
-            if (field.getName().equals(fieldName)) {
+    /**
+     * The power-specific private fields read by convertCreaturePowersToJson, resolved once per power
+     * class. Only fields declared by the class itself count, as before.
+     */
+    private static final class PowerFields {
+        private static final String[] MISC_FIELD_NAMES = {"basePower", "maxAmt", "storedAmount", "hpLoss", "cardsDoubledThisTurn"};
+        private static final String[] JUST_APPLIED_FIELD_NAMES = {"justApplied", "skipFirst"};
+
+        final Field damage;
+        final Field card;
+        // Fields that exist, in name order
+        final Field[] misc;
+        final Field[] justApplied;
+
+        private PowerFields(Class<?> type) {
+            HashMap<String, Field> declared = new HashMap<>();
+            for (Field field : type.getDeclaredFields()) {
                 try {
                     field.setAccessible(true);
-                    return field.get(object);
-                } catch(IllegalAccessException e) {
+                    declared.put(field.getName(), field);
+                } catch (SecurityException e) {
                     e.printStackTrace();
-                    return null;
                 }
             }
+            damage = declared.get("damage");
+            card = declared.get("card");
+            misc = existing(declared, MISC_FIELD_NAMES);
+            justApplied = existing(declared, JUST_APPLIED_FIELD_NAMES);
+        }
+
+        private static Field[] existing(HashMap<String, Field> declared, String[] names) {
+            ArrayList<Field> fields = new ArrayList<>();
+            for (String name : names) {
+                Field field = declared.get(name);
+                if (field != null) {
+                    fields.add(field);
+                }
+            }
+            return fields.toArray(new Field[0]);
         }
-        return null;
     }
 
-    private static ArrayList<Object> convertCreaturePowersToJson(AbstractCreature creature) {
-        ArrayList<Object> powers = new ArrayList<>();
-        for (AbstractPower power : creature.powers) {
-            HashMap<String, Object> json_power = new HashMap<>();
-            json_power.put("id", power.ID);
+    private static final ClassValue<PowerFields> powerFields = new ClassValue<PowerFields>() {
+        @Override
+        protected PowerFields computeValue(Class<?> type) {
+            return new PowerFields(type);
+        }
+    };
 
-            // Amount - only include if non-zero (many powers use amount)
-            if (power.amount != 0) {
-                json_power.put("amount", power.amount);
-            }
+    private static Object getFieldValue(Field field, Object object) {
+        if (field == null) {
+            return null;
+        }
+        try {
+            return field.get(object);
+        } catch(IllegalAccessException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
 
-            // Special fields for specific powers - only include if present
-            Object damage = getFieldIfExists(power, "damage");
-            if (damage != null) {
-                json_power.put("damage", (int) damage);
+    private static ArrayList<PowerView> convertCreaturePowersToJson(AbstractCreature creature) {
+        ArrayList<PowerView> powers = new ArrayList<>();
+        for (AbstractPower power : creature.powers) {
+            PowerFields fields = powerFields.get(power.getClass());
+
+            // Special fields for specific powers - only included if present
+            Integer damage = null;
+            Object damageField = getFieldValue(fields.damage, power);
+            if (damageField != null) {
+                damage = (int) damageField;
             }
-            Object card = getFieldIfExists(power, "card");
-            if (card != null) {
-                json_power.put("card", convertCardToJson((AbstractCard) card));
+            CardView card = null;
+            Object cardField = getFieldValue(fields.card, power);
+            if (cardField != null) {
+                card = convertCardToJson((AbstractCard) cardField);
             }
 
             // Misc fields for special powers
-            String[] miscFieldNames = {"basePower", "maxAmt", "storedAmount", "hpLoss", "cardsDoubledThisTurn"};
-            for (String fieldName : miscFieldNames) {
-                Object misc = getFieldIfExists(power, fieldName);
-                if (misc != null) {
-                    json_power.put("misc", (int) misc);
+            Integer misc = null;
+            for (Field field : fields.misc) {
+                Object miscField = getFieldValue(field, power);
+                if (miscField != null) {
+                    misc = (int) miscField;
                     break;
                 }
             }
 
             // Just applied flag
-            String[] justAppliedNames = {"justApplied", "skipFirst"};
-            for (String fieldName : justAppliedNames) {
-                Object justApplied = getFieldIfExists(power, fieldName);
-                if (justApplied != null && (boolean) justApplied) {
-                    json_power.put("just_applied", true);
+            boolean justApplied = false;
+            for (Field field : fields.justApplied) {
+                Object justAppliedField = getFieldValue(field, power);
+                if (justAppliedField != null && (boolean) justAppliedField) {
+                    justApplied = true;
                     break;
                 }
             }
 
-            powers.add(json_power);
+            powers.add(new PowerView(power.ID, power.amount, damage, card, misc, justApplied));
         }
         return powers;
     }
 
-    private static HashMap<String, Object> convertRelicToJson(AbstractRelic relic) {
-        HashMap<String, Object> jsonRelic = new HashMap<>();
-        jsonRelic.put("id", relic.relicId);
-        jsonRelic.put("name", relic.name);
-        // Counter: -1 means unused, -2 means special, only include if active
-        if (relic.counter >= 0) {
-            jsonRelic.put("counter", relic.counter);
-        }
-        return jsonRelic;
+    private static RelicView convertRelicToJson(AbstractRelic relic) {
+        return new RelicView(relic, Price.NONE);
     }
 
-    private static HashMap<String, Object> convertPotionToJson(AbstractPotion potion) {
-        HashMap<String, Object> jsonPotion = new HashMap<>();
-        jsonPotion.put("id", potion.ID);
-        jsonPotion.put("name", potion.name);
-
-        // For empty potion slots, just return minimal info
-        if (potion instanceof PotionSlot) {
-            jsonPotion.put("is_empty", true);
-            return jsonPotion;
-        }
-
-        // Only include if usable/discardable
-        if (potion.canUse()) {
-            jsonPotion.put("can_use", true);
-            if (potion.isThrown) {
-                jsonPotion.put("requires_target", true);
-            }
-        }
-        if (potion.canDiscard()) {
-            jsonPotion.put("can_discard", true);
-        }
-        return jsonPotion;
-    }
-
-    private static HashMap<String, Object> convertOrbToJson(AbstractOrb orb) {
-        HashMap<String, Object> jsonOrb = new HashMap<>();
-        jsonOrb.put("id", orb.ID);
-
-        // Only include amounts if they're meaningful (non-zero)
-        if (orb.evokeAmount > 0) {
-            jsonOrb.put("evoke", orb.evokeAmount);
-        }
-        if (orb.passiveAmount > 0) {
-            jsonOrb.put("passive", orb.passiveAmount);
-        }
-        return jsonOrb;
+    private static PotionView convertPotionToJson(AbstractPotion potion) {
+        return new PotionView(potion, Price.NONE);
     }
 
 }
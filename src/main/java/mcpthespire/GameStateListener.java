@@ -17,10 +17,12 @@ public class GameStateListener {
     private static boolean externalChange = false;
     private static boolean myTurn = false;
     private static boolean blocked = false;
-    private static boolean waitingForCommand = false;
+    private static volatile boolean waitingForCommand = false;
     private static boolean hasPresentedOutOfGameState = false;
     private static boolean waitOneUpdate = false;
     private static int timeout = 0;
+    // Bumped on the game thread every time a new state is presented; read from HTTP threads
+    private static volatile long stateVersion = 0;
 
     public static void registerStateChange() {
         externalChange = true;
@@ -158,6 +160,7 @@ public class GameStateListener {
         if (stateChange) {
             externalChange = false;
             waitingForCommand = true;
+            stateVersion++;
         }
         return stateChange;
     }
@@ -175,6 +178,7 @@ public class GameStateListener {
                 previousGold = AbstractDungeon.player.gold;
                 previousConfirmScreenUp = AbstractDungeon.screen.equals(AbstractDungeon.CurrentScreen.GRID) && AbstractDungeon.gridSelectScreen.confirmScreenUp;
                 timeout = 0;
+                stateVersion++;
             }
         } else {
             myTurn = false;
@@ -185,4 +189,26 @@ public class GameStateListener {
     public static boolean isWaitingForCommand() {
         return waitingForCommand;
     }
+
+    public static long getStateVersion() {
+        return stateVersion;
+    }
+
+    /**
+     * True when the engine has nothing left to resolve before it can take input: the action manager's
+     * queues are drained, or a screen is up and waiting on the player. Game thread only.
+     */
+    public static boolean isEngineIdle() {
+        if (!CommandExecutor.isInDungeon()) {
+            return true;
+        }
+        if (AbstractDungeon.isScreenUp) {
+            return true;
+        }
+        GameActionManager actionManager = AbstractDungeon.actionManager;
+        return actionManager.currentAction == null
+                && actionManager.actions.isEmpty()
+                && actionManager.preTurnActions.isEmpty()
+                && actionManager.cardQueue.isEmpty();
+    }
 }
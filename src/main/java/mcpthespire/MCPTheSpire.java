@@ -35,14 +35,38 @@ public class MCPTheSpire implements PostInitializeSubscriber, PostUpdateSubscrib
     // Config keys
     private static final String CONFIG_HOST = "host";
     private static final String CONFIG_PORT = "port";
+    private static final String CONFIG_TRANSPORT = "transport";
+    private static final String CONFIG_NOTIFY_STATE = "notify_state";
+    private static final String CONFIG_MAX_BODY_BYTES = "max_body_bytes";
+    private static final String CONFIG_COMPRESSION = "compression";
+    private static final String CONFIG_COMPRESSION_MIN_BYTES = "compression_min_bytes";
+    private static final String CONFIG_FRAME_BUDGET_MS = "frame_budget_ms";
+    private static final String CONFIG_BATCH_MIN_INTERVAL_MS = "batch_min_interval_ms";
+    private static final String CONFIG_MAX_QUEUED_CALLS = "max_queued_calls";
 
     // Default values
     private static final String DEFAULT_HOST = "127.0.0.1";
     private static final int DEFAULT_PORT = 8080;
+    private static final String DEFAULT_TRANSPORT = MCPServer.TRANSPORT_JDK;
+    private static final boolean DEFAULT_NOTIFY_STATE = true;
+    private static final int DEFAULT_MAX_BODY_BYTES = MCPServer.DEFAULT_MAX_REQUEST_BODY_BYTES;
+    private static final boolean DEFAULT_COMPRESSION = true;
+    private static final int DEFAULT_COMPRESSION_MIN_BYTES = MCPServer.DEFAULT_COMPRESSION_MIN_BYTES;
+    private static final float DEFAULT_FRAME_BUDGET_MS = MCPServer.DEFAULT_FRAME_BUDGET_MS;
+    private static final int DEFAULT_BATCH_MIN_INTERVAL_MS = 0;
+    private static final int DEFAULT_MAX_QUEUED_CALLS = MCPServer.DEFAULT_MAX_QUEUED_TOOL_CALLS;
 
     // Current config values
     private static String configHost = DEFAULT_HOST;
     private static int configPort = DEFAULT_PORT;
+    private static String configTransport = DEFAULT_TRANSPORT;
+    private static boolean configNotifyState = DEFAULT_NOTIFY_STATE;
+    private static int configMaxBodyBytes = DEFAULT_MAX_BODY_BYTES;
+    private static boolean configCompression = DEFAULT_COMPRESSION;
+    private static int configCompressionMinBytes = DEFAULT_COMPRESSION_MIN_BYTES;
+    private static float configFrameBudgetMs = DEFAULT_FRAME_BUDGET_MS;
+    private static int configBatchMinIntervalMs = DEFAULT_BATCH_MIN_INTERVAL_MS;
+    private static int configMaxQueuedCalls = DEFAULT_MAX_QUEUED_CALLS;
     private static SpireConfig config;
 
     private static Thread mcpServerThread;
@@ -64,30 +88,65 @@ public class MCPTheSpire implements PostInitializeSubscriber, PostUpdateSubscrib
             Properties defaults = new Properties();
             defaults.setProperty(CONFIG_HOST, DEFAULT_HOST);
             defaults.setProperty(CONFIG_PORT, String.valueOf(DEFAULT_PORT));
+            defaults.setProperty(CONFIG_TRANSPORT, DEFAULT_TRANSPORT);
+            defaults.setProperty(CONFIG_NOTIFY_STATE, String.valueOf(DEFAULT_NOTIFY_STATE));
+            defaults.setProperty(CONFIG_MAX_BODY_BYTES, String.valueOf(DEFAULT_MAX_BODY_BYTES));
+            defaults.setProperty(CONFIG_COMPRESSION, String.valueOf(DEFAULT_COMPRESSION));
+            defaults.setProperty(CONFIG_COMPRESSION_MIN_BYTES, String.valueOf(DEFAULT_COMPRESSION_MIN_BYTES));
+            defaults.setProperty(CONFIG_FRAME_BUDGET_MS, String.valueOf(DEFAULT_FRAME_BUDGET_MS));
+            defaults.setProperty(CONFIG_BATCH_MIN_INTERVAL_MS, String.valueOf(DEFAULT_BATCH_MIN_INTERVAL_MS));
+            defaults.setProperty(CONFIG_MAX_QUEUED_CALLS, String.valueOf(DEFAULT_MAX_QUEUED_CALLS));
 
             config = new SpireConfig("MCPTheSpire", "config", defaults);
 
             configHost = config.getString(CONFIG_HOST);
             configPort = config.getInt(CONFIG_PORT);
-
-            logger.info("Loaded config: host=" + configHost + ", port=" + configPort);
+            configTransport = config.getString(CONFIG_TRANSPORT);
+            configNotifyState = config.getBool(CONFIG_NOTIFY_STATE);
+            configMaxBodyBytes = config.getInt(CONFIG_MAX_BODY_BYTES);
+            configCompression = config.getBool(CONFIG_COMPRESSION);
+            configCompressionMinBytes = config.getInt(CONFIG_COMPRESSION_MIN_BYTES);
+            configFrameBudgetMs = config.getFloat(CONFIG_FRAME_BUDGET_MS);
+            configBatchMinIntervalMs = config.getInt(CONFIG_BATCH_MIN_INTERVAL_MS);
+            configMaxQueuedCalls = config.getInt(CONFIG_MAX_QUEUED_CALLS);
+
+            logger.info("Loaded config: host=" + configHost + ", port=" + configPort + ", transport=" + configTransport);
         } catch (IOException e) {
             logger.error("Failed to load config, using defaults", e);
             configHost = DEFAULT_HOST;
             configPort = DEFAULT_PORT;
+            configTransport = DEFAULT_TRANSPORT;
+            configNotifyState = DEFAULT_NOTIFY_STATE;
+            configMaxBodyBytes = DEFAULT_MAX_BODY_BYTES;
+            configCompression = DEFAULT_COMPRESSION;
+            configCompressionMinBytes = DEFAULT_COMPRESSION_MIN_BYTES;
+            configFrameBudgetMs = DEFAULT_FRAME_BUDGET_MS;
+            configBatchMinIntervalMs = DEFAULT_BATCH_MIN_INTERVAL_MS;
+            configMaxQueuedCalls = DEFAULT_MAX_QUEUED_CALLS;
         }
     }
 
     public void receivePreUpdate() {
-        // Process any pending MCP tool calls on the game thread
-        if (mcpServer != null && mcpServer.hasPendingToolCalls()) {
-            logger.info("Processing pending MCP tool call on game thread");
-            mcpServer.processPendingToolCalls();
-            logger.info("Finished processing MCP tool call");
+        // Run queued MCP tool calls before the update so their actions apply this frame
+        if (mcpServer != null) {
+            mcpServer.processPendingToolCalls(MCPServer.FramePhase.PRE_UPDATE);
         }
     }
 
     public void receivePostInitialize() {
+        // Report every missing name at startup if a game update renamed a private field we read.
+        // Only the screens that use a missing field fail; the rest of the mod still starts.
+        try {
+            ScreenFields.resolve();
+        } catch (IllegalStateException e) {
+            logger.error(e.getMessage());
+        }
+        try {
+            GameCatalog.build();
+        } catch (RuntimeException | LinkageError e) {
+            // Card and relic info is then looked up live; the rest of the mod still needs to start
+            logger.error("Could not build the game catalog", e);
+        }
         setUpOptionsMenu();
         BaseMod.addEvent((new AddEventParams.Builder(FaceTrader.ID, FaceTrader.class))
             .eventType(EventUtils.EventType.FULL_REPLACE).overrideEvent("Match and Keep!")
@@ -95,23 +154,28 @@ public class MCPTheSpire implements PostInitializeSubscriber, PostUpdateSubscrib
     }
 
     public void receivePostUpdate() {
-        // Also process MCP tool calls here in case PreUpdate isn't called
-        if (mcpServer != null && mcpServer.hasPendingToolCalls()) {
-            logger.info("Processing pending MCP tool call in PostUpdate");
-            mcpServer.processPendingToolCalls();
-        }
-
+        // The game update ran since PRE_UPDATE; don't classify the screen from before it
+        ChoiceScreenUtils.invalidateFrameMemo();
         if (!mustSendGameState && GameStateListener.checkForMenuStateChange()) {
             mustSendGameState = true;
         }
         if (mustSendGameState) {
-            // State is sent through tool calls, so just reset the flag
+            // Snapshot the new state and push it to SSE listeners, within the frame budget below
+            if (mcpServer != null) {
+                mcpServer.onGameStateChanged();
+            }
             mustSendGameState = false;
         }
+
+        // Readiness is current now, so calls that were waiting for it can run in this same frame
+        if (mcpServer != null) {
+            mcpServer.processPendingToolCalls(MCPServer.FramePhase.POST_UPDATE);
+        }
         InputActionPatch.doKeypress = false;
     }
 
     public void receivePostDungeonUpdate() {
+        ChoiceScreenUtils.invalidateFrameMemo();
         if (GameStateListener.checkForDungeonStateChange()) {
             mustSendGameState = true;
         }
@@ -123,8 +187,8 @@ public class MCPTheSpire implements PostInitializeSubscriber, PostUpdateSubscrib
     @Override
     public void receivePostRender(SpriteBatch sb) {
         // Process MCP tool calls during render - this is called even in menus
-        if (mcpServer != null && mcpServer.hasPendingToolCalls()) {
-            mcpServer.processPendingToolCalls();
+        if (mcpServer != null) {
+            mcpServer.processPendingToolCalls(MCPServer.FramePhase.POST_RENDER);
         }
     }
 
@@ -184,6 +248,15 @@ public class MCPTheSpire implements PostInitializeSubscriber, PostUpdateSubscrib
                 modLabel.text = "Port: " + configPort;
             });
         settingsPanel.addUIElement(portLabel);
+        yPos -= lineHeight;
+
+        // Transport config
+        ModLabel transportLabel = new ModLabel(
+            "", xPos, yPos, Settings.CREAM_COLOR, FontHelper.charDescFont,
+            settingsPanel, modLabel -> {
+                modLabel.text = "Transport: " + configTransport;
+            });
+        settingsPanel.addUIElement(transportLabel);
         yPos -= lineHeight * 1.5f;
 
         // Config file note
@@ -205,10 +278,17 @@ public class MCPTheSpire implements PostInitializeSubscriber, PostUpdateSubscrib
 
     private void startMCPServer() {
         mcpServer = new MCPServer(configHost, configPort);
+        mcpServer.setTransport(configTransport);
+        mcpServer.setNotifyIncludeState(configNotifyState);
+        mcpServer.setMaxRequestBodyBytes(configMaxBodyBytes);
+        mcpServer.setCompression(configCompression, configCompressionMinBytes);
+        mcpServer.setFrameBudgetMs(configFrameBudgetMs);
+        mcpServer.setBatchMinIntervalMs(configBatchMinIntervalMs);
+        mcpServer.setMaxQueuedToolCalls(configMaxQueuedCalls);
         mcpServerThread = new Thread(mcpServer, "MCPServer");
         mcpServerThread.setDaemon(true);
         mcpServerThread.start();
-        logger.info("MCP Server thread started on " + configHost + ":" + configPort);
+        logger.info("MCP Server thread started on " + configHost + ":" + configPort + " (" + mcpServer.getTransport() + " transport)");
 
         if (GameStateListener.isWaitingForCommand()) {
             mustSendGameState = true;
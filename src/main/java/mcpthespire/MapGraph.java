@@ -0,0 +1,83 @@
+package mcpthespire;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable copy of the current act's map paths: every node on a path with its room symbol and
+ * children, plus the nodes the player can move to next. Built once per floor by
+ * {@link DungeonMapIndex}, so it can be shared with other threads through the state snapshot.
+ */
+public final class MapGraph {
+
+    public static final class Node {
+        public final int x;
+        public final int y;
+        public final String symbol;
+        // Burning elite that carries the Emerald Key
+        public final boolean emeraldKey;
+        private List<Node> children = Collections.emptyList();
+
+        Node(int x, int y, String symbol, boolean emeraldKey) {
+            this.x = x;
+            this.y = y;
+            this.symbol = symbol;
+            this.emeraldKey = emeraldKey;
+        }
+
+        /**
+         * Nodes this one has an edge to, not counting the boss room.
+         */
+        public List<Node> getChildren() {
+            return children;
+        }
+    }
+
+    // Ordered by row, then x
+    private final List<Node> nodes;
+    private final List<Node> nextNodes;
+    private final Node currentNode;
+
+    /**
+     * @param children children of each node, by index into {@code nodes}
+     * @param currentNode where the player is, or null before the first room of the act
+     */
+    MapGraph(List<Node> nodes, List<List<Node>> children, List<Node> nextNodes, Node currentNode) {
+        for (int i = 0; i < nodes.size(); i++) {
+            nodes.get(i).children = Collections.unmodifiableList(new ArrayList<>(children.get(i)));
+        }
+        this.nodes = Collections.unmodifiableList(new ArrayList<>(nodes));
+        this.nextNodes = Collections.unmodifiableList(new ArrayList<>(nextNodes));
+        this.currentNode = currentNode;
+    }
+
+    /**
+     * The graph for the current map, or null outside a dungeon. Game thread only.
+     */
+    public static MapGraph current() {
+        if (!CommandExecutor.isInDungeon() || com.megacrit.cardcrawl.dungeons.AbstractDungeon.map == null) {
+            return null;
+        }
+        return DungeonMapIndex.get().getGraph();
+    }
+
+    public List<Node> getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Nodes the player can move to next by following edges (Winged Boots jumps are not included).
+     * Empty when the next room is the boss.
+     */
+    public List<Node> getNextNodes() {
+        return nextNodes;
+    }
+
+    /**
+     * The node the player is on, or null before the first room of the act.
+     */
+    public Node getCurrentNode() {
+        return currentNode;
+    }
+}
@@ -0,0 +1,182 @@
+package mcpthespire;
+
+import com.megacrit.cardcrawl.cards.CardGroup;
+import com.megacrit.cardcrawl.events.GenericEventDialog;
+import com.megacrit.cardcrawl.events.RoomEventDialog;
+import com.megacrit.cardcrawl.events.shrines.GremlinMatchGame;
+import com.megacrit.cardcrawl.events.shrines.GremlinWheelGame;
+import com.megacrit.cardcrawl.helpers.Hitbox;
+import com.megacrit.cardcrawl.rooms.CampfireUI;
+import com.megacrit.cardcrawl.screens.CardRewardScreen;
+import com.megacrit.cardcrawl.screens.mainMenu.MenuCancelButton;
+import com.megacrit.cardcrawl.screens.select.BossRelicSelectScreen;
+import com.megacrit.cardcrawl.screens.select.GridCardSelectScreen;
+import com.megacrit.cardcrawl.screens.select.HandCardSelectScreen;
+import com.megacrit.cardcrawl.shop.ShopScreen;
+import com.megacrit.cardcrawl.ui.buttons.CardSelectConfirmButton;
+import com.megacrit.cardcrawl.ui.buttons.GridSelectConfirmButton;
+import com.megacrit.cardcrawl.ui.buttons.ProceedButton;
+import com.megacrit.cardcrawl.ui.buttons.SingingBowlButton;
+import com.megacrit.cardcrawl.ui.buttons.SkipCardButton;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Private game fields and methods that ChoiceScreenUtils reads, resolved once instead of looked up
+ * by name on every screen-state read. Call {@link #resolve()} at startup so a game update that
+ * renames any of them is reported all at once rather than on whichever screen hits it first.
+ * A missing field only fails the accessors that use it, when they are used.
+ */
+final class ScreenFields {
+
+    private static final Logger logger = LogManager.getLogger(ScreenFields.class.getName());
+
+    // Lookups that failed, filled in as the accessors below are created
+    private static final List<String> missing = new ArrayList<>();
+
+    static final Accessor<MenuCancelButton> BOSS_RELIC_CANCEL_BUTTON =
+        field(BossRelicSelectScreen.class, "cancelButton", MenuCancelButton.class);
+    static final Accessor<SingingBowlButton> CARD_REWARD_BOWL_BUTTON =
+        field(CardRewardScreen.class, "bowlButton", SingingBowlButton.class);
+    static final Accessor<Boolean> BOWL_BUTTON_HIDDEN =
+        field(SingingBowlButton.class, "isHidden", boolean.class);
+    static final Accessor<SkipCardButton> CARD_REWARD_SKIP_BUTTON =
+        field(CardRewardScreen.class, "skipButton", SkipCardButton.class);
+    static final Accessor<Boolean> SKIP_BUTTON_HIDDEN =
+        field(SkipCardButton.class, "isHidden", boolean.class);
+    static final Accessor<Boolean> CARD_SELECT_CONFIRM_HIDDEN =
+        field(CardSelectConfirmButton.class, "isHidden", boolean.class);
+    static final Accessor<CardGroup> GRID_TARGET_GROUP =
+        field(GridCardSelectScreen.class, "targetGroup", CardGroup.class);
+    static final Accessor<Boolean> GRID_CAN_CANCEL =
+        field(GridCardSelectScreen.class, "canCancel", boolean.class);
+    static final Accessor<Boolean> GRID_CONFIRM_HIDDEN =
+        field(GridSelectConfirmButton.class, "isHidden", boolean.class);
+    static final Accessor<ArrayList> SHOP_COLORED_CARDS =
+        field(ShopScreen.class, "coloredCards", ArrayList.class);
+    static final Accessor<ArrayList> SHOP_COLORLESS_CARDS =
+        field(ShopScreen.class, "colorlessCards", ArrayList.class);
+    static final Accessor<ArrayList> SHOP_RELICS =
+        field(ShopScreen.class, "relics", ArrayList.class);
+    static final Accessor<ArrayList> SHOP_POTIONS =
+        field(ShopScreen.class, "potions", ArrayList.class);
+    static final Accessor<Hitbox> PROCEED_BUTTON_HITBOX =
+        field(ProceedButton.class, "hb", Hitbox.class);
+    static final Accessor<Boolean> GENERIC_EVENT_DIALOG_SHOWN =
+        field(GenericEventDialog.class, "show", boolean.class);
+    static final Accessor<Boolean> ROOM_EVENT_DIALOG_SHOWN =
+        field(RoomEventDialog.class, "show", boolean.class);
+    static final Accessor<CardGroup> GREMLIN_MATCH_CARDS =
+        field(GremlinMatchGame.class, "cards", CardGroup.class);
+    static final Accessor<Boolean> GREMLIN_WHEEL_BUTTON_PRESSED =
+        field(GremlinWheelGame.class, "buttonPressed", boolean.class);
+    static final Accessor<ArrayList> CAMPFIRE_BUTTONS =
+        field(CampfireUI.class, "buttons", ArrayList.class);
+
+    private static final Method HAND_SELECT_HOVERED_CARD = method(HandCardSelectScreen.class, "selectHoveredCard");
+
+    private ScreenFields() {
+    }
+
+    /**
+     * Throw if any field or method could not be resolved, listing every one that is missing.
+     */
+    static void resolve() {
+        synchronized (missing) {
+            if (!missing.isEmpty()) {
+                throw new IllegalStateException("Game fields not found (renamed by a game update?): " + String.join(", ", missing));
+            }
+        }
+        logger.info("Resolved private game fields for screen state");
+    }
+
+    /**
+     * Call HandCardSelectScreen.selectHoveredCard() on {@code screen}.
+     */
+    static void selectHoveredCard(HandCardSelectScreen screen) {
+        if (HAND_SELECT_HOVERED_CARD == null) {
+            throw new IllegalStateException("HandCardSelectScreen.selectHoveredCard was not found");
+        }
+        try {
+            HAND_SELECT_HOVERED_CARD.invoke(screen);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            e.printStackTrace();
+            throw new RuntimeException("selectHoveredCard method somehow can't be called.");
+        }
+    }
+
+    private static <T> Accessor<T> field(Class<?> owner, String name, Class<?> type) {
+        String description = owner.getSimpleName() + "." + name;
+        try {
+            Field field = owner.getDeclaredField(name);
+            if (!type.isAssignableFrom(field.getType())) {
+                recordMissing(description + " (is " + field.getType().getSimpleName() + ", expected " + type.getSimpleName() + ")");
+                return new Accessor<>(description, null);
+            }
+            field.setAccessible(true);
+            return new Accessor<>(description, field);
+        } catch (NoSuchFieldException | SecurityException e) {
+            recordMissing(description);
+            return new Accessor<>(description, null);
+        }
+    }
+
+    private static Method method(Class<?> owner, String name) {
+        try {
+            Method method = owner.getDeclaredMethod(name);
+            method.setAccessible(true);
+            return method;
+        } catch (NoSuchMethodException | SecurityException e) {
+            recordMissing(owner.getSimpleName() + "." + name + "()");
+            return null;
+        }
+    }
+
+    private static void recordMissing(String description) {
+        synchronized (missing) {
+            missing.add(description);
+        }
+    }
+
+    /**
+     * A resolved private field. Static fields are read with a null instance.
+     */
+    static final class Accessor<T> {
+        private final String description;
+        private final Field field;
+
+        private Accessor(String description, Field field) {
+            this.description = description;
+            this.field = field;
+        }
+
+        @SuppressWarnings("unchecked")
+        T get(Object instance) {
+            if (field == null) {
+                throw new IllegalStateException(description + " was not found");
+            }
+            try {
+                return (T) field.get(instance);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(description + " is not accessible", e);
+            }
+        }
+
+        void set(Object instance, T value) {
+            if (field == null) {
+                throw new IllegalStateException(description + " was not found");
+            }
+            try {
+                field.set(instance, value);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(description + " is not accessible", e);
+            }
+        }
+    }
+}
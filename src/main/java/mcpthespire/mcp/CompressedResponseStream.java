@@ -0,0 +1,182 @@
+package mcpthespire.mcp;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Response body that holds output back until it reaches {@code threshold} bytes. Smaller
+ * responses are sent raw with a Content-Length. Larger ones are streamed, compressed with the
+ * negotiated encoding if there is one.
+ */
+class CompressedResponseStream extends OutputStream {
+
+    static final String ENCODING_GZIP = "gzip";
+    static final String ENCODING_DEFLATE = "deflate";
+
+    private final MCPExchange exchange;
+    private final int status;
+    private final String encoding;
+    private final int threshold;
+    private final MCPMetrics metrics;
+
+    private ByteArrayOutputStream pending = new ByteArrayOutputStream();
+    private CountingOutputStream wire;
+    private OutputStream body;
+    private long serializedBytes;
+    private long compressNanos;
+    private boolean closed;
+
+    /**
+     * @param encoding {@link #ENCODING_GZIP}, {@link #ENCODING_DEFLATE}, or null to never compress
+     */
+    CompressedResponseStream(MCPExchange exchange, int status, String encoding, int threshold, MCPMetrics metrics) {
+        this.exchange = exchange;
+        this.status = status;
+        this.encoding = encoding;
+        this.threshold = threshold;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Pick a response encoding from an Accept-Encoding header, preferring gzip. Returns null for identity.
+     */
+    static String negotiate(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return null;
+        }
+        boolean gzip = false;
+        boolean deflate = false;
+        for (String token : acceptEncoding.split(",")) {
+            String[] parts = token.trim().split(";");
+            String name = parts[0].trim().toLowerCase(Locale.ROOT);
+            double q = 1.0;
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        q = Double.parseDouble(param.substring(2));
+                    } catch (NumberFormatException e) {
+                        q = 0;
+                    }
+                }
+            }
+            if (q <= 0) {
+                continue;
+            }
+            if (ENCODING_GZIP.equals(name) || "x-gzip".equals(name) || "*".equals(name)) {
+                gzip = true;
+            } else if (ENCODING_DEFLATE.equals(name)) {
+                deflate = true;
+            }
+        }
+        return gzip ? ENCODING_GZIP : deflate ? ENCODING_DEFLATE : null;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] data, int offset, int length) throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        serializedBytes += length;
+        if (body == null) {
+            pending.write(data, offset, length);
+            if (pending.size() >= threshold) {
+                startBody();
+            }
+            return;
+        }
+        long start = System.nanoTime();
+        body.write(data, offset, length);
+        if (encoding != null) {
+            compressNanos += System.nanoTime() - start;
+        }
+    }
+
+    @Override
+    public void flush() {
+        // Output is held back until the threshold or close decides how it is sent
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (body == null) {
+            byte[] raw = pending.toByteArray();
+            pending = null;
+            exchange.sendResponse(status, raw);
+            metrics.recordResponse(raw.length, raw.length, false, 0);
+            return;
+        }
+        long start = System.nanoTime();
+        body.close();
+        if (encoding != null) {
+            compressNanos += System.nanoTime() - start;
+        }
+        metrics.recordResponse(serializedBytes, wire.count, encoding != null, compressNanos);
+    }
+
+    private void startBody() throws IOException {
+        if (encoding != null) {
+            exchange.setResponseHeader("Content-Encoding", encoding);
+        }
+        wire = new CountingOutputStream(exchange.openResponseStream(status));
+        if (ENCODING_GZIP.equals(encoding)) {
+            body = new GZIPOutputStream(wire, 8192);
+        } else if (ENCODING_DEFLATE.equals(encoding)) {
+            body = new DeflaterOutputStream(wire);
+        } else {
+            body = wire;
+        }
+
+        byte[] buffered = pending.toByteArray();
+        pending = null;
+        long start = System.nanoTime();
+        body.write(buffered);
+        if (encoding != null) {
+            compressNanos += System.nanoTime() - start;
+        }
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+        private final OutputStream out;
+        long count;
+
+        CountingOutputStream(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] data, int offset, int length) throws IOException {
+            out.write(data, offset, length);
+            count += length;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+}
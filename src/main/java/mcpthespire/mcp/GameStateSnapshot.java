@@ -0,0 +1,219 @@
+package mcpthespire.mcp;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Immutable copy of the game state, built on the game thread and published through a volatile
+ * reference. Read-only tools serve from the latest snapshot so they never walk live game objects
+ * (hand, piles, monsters) while the game thread is mutating them.
+ */
+final class GameStateSnapshot {
+
+    // Recent snapshots (one per state version, oldest first) that get_state_delta can diff against
+    static final int HISTORY_SIZE = 16;
+    private static final Gson gson = new Gson();
+
+    private static volatile GameStateSnapshot current;
+    private static volatile GameStateSnapshot[] history = new GameStateSnapshot[0];
+    private static volatile boolean refreshRequested;
+    private static final AtomicBoolean mapWanted = new AtomicBoolean();
+    // Completed by the next publish; lets a reader wait one frame for a snapshot it asked for
+    private static volatile CompletableFuture<GameStateSnapshot> nextPublish = new CompletableFuture<>();
+
+    final long version;
+    final boolean readyForCommand;
+    final boolean inGame;
+    // get_screen_state result (ready_for_command is recomputed on read, see isReadyForCommand)
+    final Map<String, Object> screenState;
+    // Fields always present in game_state, and each section's fields by section name
+    final Map<String, Object> gameStateBase;
+    final Map<String, Map<String, Object>> sections;
+    // get_available_commands result (ready_for_command is recomputed on read)
+    final Map<String, Object> availableCommands;
+    // Map paths for plan_route; null outside a dungeon. Already immutable, so shared rather than copied
+    final mcpthespire.MapGraph mapGraph;
+    // JSON form of the state that get_state_delta diffs, built on first use
+    private volatile JsonObject deltaDocument;
+
+    GameStateSnapshot(long version, boolean readyForCommand, boolean inGame, Map<String, Object> screenState,
+                      Map<String, Object> gameStateBase, Map<String, Map<String, Object>> sections,
+                      Map<String, Object> availableCommands, mcpthespire.MapGraph mapGraph) {
+        this.version = version;
+        this.readyForCommand = readyForCommand;
+        this.inGame = inGame;
+        this.screenState = freezeMap(screenState);
+        this.gameStateBase = freezeMap(gameStateBase);
+        Map<String, Map<String, Object>> frozenSections = new LinkedHashMap<>();
+        for (Map.Entry<String, Map<String, Object>> entry : sections.entrySet()) {
+            frozenSections.put(entry.getKey(), freezeMap(entry.getValue()));
+        }
+        this.sections = Collections.unmodifiableMap(frozenSections);
+        this.availableCommands = freezeMap(availableCommands);
+        this.mapGraph = mapGraph;
+    }
+
+    /**
+     * The latest published snapshot, or null before the first publish.
+     */
+    static GameStateSnapshot current() {
+        return current;
+    }
+
+    /**
+     * Publish a new snapshot. Game thread only.
+     */
+    static void publish(GameStateSnapshot snapshot) {
+        current = snapshot;
+        history = appendToHistory(history, snapshot);
+        refreshRequested = false;
+        CompletableFuture<GameStateSnapshot> waiting = nextPublish;
+        nextPublish = new CompletableFuture<>();
+        waiting.complete(snapshot);
+    }
+
+    /**
+     * Ask the game thread to publish a fresh snapshot at its next hook, and wait up to
+     * {@code timeoutMs} for it. Returns the latest snapshot (possibly null) if none arrives in time.
+     */
+    static GameStateSnapshot awaitRefresh(long timeoutMs) {
+        CompletableFuture<GameStateSnapshot> waiting = nextPublish;
+        refreshRequested = true;
+        try {
+            return waiting.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            // Fall back to whatever is current
+        }
+        return current;
+    }
+
+    /**
+     * The snapshot published for {@code version}, or null if it has left the history.
+     */
+    static GameStateSnapshot forVersion(long version) {
+        for (GameStateSnapshot snapshot : history) {
+            if (snapshot.version == version) {
+                return snapshot;
+            }
+        }
+        return null;
+    }
+
+    private static GameStateSnapshot[] appendToHistory(GameStateSnapshot[] previous, GameStateSnapshot snapshot) {
+        List<GameStateSnapshot> entries = new ArrayList<>(previous.length + 1);
+        for (GameStateSnapshot entry : previous) {
+            // A refresh at the same version (e.g. to add the map section) replaces the older entry
+            if (entry.version != snapshot.version) {
+                entries.add(entry);
+            }
+        }
+        entries.add(snapshot);
+        int from = Math.max(0, entries.size() - HISTORY_SIZE);
+        return entries.subList(from, entries.size()).toArray(new GameStateSnapshot[0]);
+    }
+
+    static boolean isRefreshRequested() {
+        return refreshRequested;
+    }
+
+    /**
+     * The map section and route graph are large and rarely read, so they are only captured by the
+     * next publish after a reader asks for them. Each read asks again, so the map is rebuilt only
+     * while someone is still reading it. Returns whether it was asked for, and clears the request.
+     */
+    static boolean takeMapWanted() {
+        return mapWanted.getAndSet(false);
+    }
+
+    static void setMapWanted() {
+        mapWanted.set(true);
+    }
+
+    /**
+     * Assemble get_game_state's game_state from the base fields and the included sections.
+     * Sections that were not captured in this snapshot are left out.
+     */
+    Map<String, Object> buildGameState(Set<String> include) {
+        Map<String, Object> state = new LinkedHashMap<>(gameStateBase);
+        for (Map.Entry<String, Map<String, Object>> section : sections.entrySet()) {
+            if (mcpthespire.GameStateConverter.isSectionIncluded(section.getKey(), include)) {
+                state.putAll(section.getValue());
+            }
+        }
+        return state;
+    }
+
+    /**
+     * The state get_state_delta works on: in_game plus the default get_game_state sections.
+     * Treat the result as read-only; it is shared by every delta against this snapshot.
+     */
+    JsonObject toDeltaDocument() {
+        JsonObject document = deltaDocument;
+        if (document == null) {
+            // Racing readers may both build it; the results are equal
+            Map<String, Object> state = new LinkedHashMap<>();
+            state.put("in_game", inGame);
+            if (inGame) {
+                state.put("game_state", buildGameState(null));
+            }
+            document = gson.toJsonTree(state).getAsJsonObject();
+            deltaDocument = document;
+        }
+        return document;
+    }
+
+    /**
+     * Whether a command can be sent now: the snapshot was ready when taken, and the game has neither
+     * moved on to a newer state nor started executing a command since.
+     */
+    boolean isReadyForCommand() {
+        return readyForCommand
+            && mcpthespire.GameStateListener.isWaitingForCommand()
+            && mcpthespire.GameStateListener.getStateVersion() == version;
+    }
+
+    boolean hasSection(String section) {
+        return sections.containsKey(section);
+    }
+
+    private static Map<String, Object> freezeMap(Map<String, ?> map) {
+        if (map == null) {
+            return null;
+        }
+        Map<String, Object> copy = new LinkedHashMap<>();
+        for (Map.Entry<String, ?> entry : map.entrySet()) {
+            copy.put(entry.getKey(), freeze(entry.getValue()));
+        }
+        return Collections.unmodifiableMap(copy);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object freeze(Object value) {
+        if (value instanceof Map) {
+            return freezeMap((Map<String, ?>) value);
+        }
+        if (value instanceof Collection) {
+            List<Object> copy = new ArrayList<>();
+            for (Object item : (Collection<?>) value) {
+                copy.add(freeze(item));
+            }
+            return Collections.unmodifiableList(copy);
+        }
+        return value;
+    }
+}
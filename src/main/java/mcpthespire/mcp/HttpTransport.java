@@ -0,0 +1,19 @@
+package mcpthespire.mcp;
+
+import java.io.IOException;
+
+/**
+ * An HTTP server front-end that feeds exchanges into {@link MCPServer#handleExchange(MCPExchange)}.
+ */
+interface HttpTransport {
+
+    /**
+     * Bind the listening socket and start accepting connections.
+     */
+    void start() throws IOException;
+
+    /**
+     * Stop accepting connections and release the socket.
+     */
+    void stop();
+}
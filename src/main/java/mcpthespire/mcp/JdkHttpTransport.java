@@ -0,0 +1,234 @@
+package mcpthespire.mcp;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * Transport based on the JDK's com.sun.net.httpserver with a fixed thread pool.
+ * Every exchange, including open SSE streams and tool calls waiting on the game thread,
+ * holds one pool thread until it finishes.
+ */
+class JdkHttpTransport implements HttpTransport {
+
+    private static final Logger logger = LogManager.getLogger(JdkHttpTransport.class.getName());
+    private static final int THREAD_POOL_SIZE = 4;
+    private static final long KEEPALIVE_INTERVAL_MS = 30000;
+
+    private final MCPServer server;
+    private final String host;
+    private final int port;
+    private HttpServer httpServer;
+    private ExecutorService executor;
+
+    JdkHttpTransport(MCPServer server, String host, int port) {
+        this.server = server;
+        this.host = host;
+        this.port = port;
+    }
+
+    @Override
+    public void start() throws IOException {
+        httpServer = HttpServer.create(new InetSocketAddress(host, port), 0);
+        executor = Executors.newFixedThreadPool(THREAD_POOL_SIZE);
+        httpServer.setExecutor(executor);
+
+        HttpHandler handler = this::handle;
+        httpServer.createContext("/mcp", handler);
+        httpServer.createContext("/health", handler);
+        httpServer.createContext("/metrics", handler);
+
+        httpServer.start();
+    }
+
+    @Override
+    public void stop() {
+        if (httpServer != null) {
+            httpServer.stop(0);
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private void handle(HttpExchange httpExchange) throws IOException {
+        Exchange exchange = new Exchange(httpExchange);
+        try {
+            server.handleExchange(exchange);
+        } catch (IOException e) {
+            logger.error("Error handling HTTP exchange", e);
+            httpExchange.close();
+            return;
+        }
+        // SSE streams keep this pool thread until the client goes away
+        if (exchange.eventStream != null) {
+            exchange.eventStream.pump();
+        }
+    }
+
+    private class Exchange implements MCPExchange {
+        private final HttpExchange exchange;
+        private EventStream eventStream;
+
+        Exchange(HttpExchange exchange) {
+            this.exchange = exchange;
+        }
+
+        @Override
+        public String getRequestMethod() {
+            return exchange.getRequestMethod();
+        }
+
+        @Override
+        public String getRequestPath() {
+            return exchange.getRequestURI().getPath();
+        }
+
+        @Override
+        public String getRequestHeader(String name) {
+            return exchange.getRequestHeaders().getFirst(name);
+        }
+
+        @Override
+        public InputStream getRequestBody() {
+            return exchange.getRequestBody();
+        }
+
+        @Override
+        public String getRemoteAddress() {
+            return String.valueOf(exchange.getRemoteAddress());
+        }
+
+        @Override
+        public void setResponseHeader(String name, String value) {
+            exchange.getResponseHeaders().set(name, value);
+        }
+
+        @Override
+        public String getResponseHeader(String name) {
+            return exchange.getResponseHeaders().getFirst(name);
+        }
+
+        @Override
+        public void sendResponse(int status, byte[] body) throws IOException {
+            exchange.sendResponseHeaders(status, body == null ? -1 : body.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                if (body != null) {
+                    os.write(body);
+                }
+            }
+        }
+
+        @Override
+        public OutputStream openResponseStream(int status) throws IOException {
+            // A zero length selects chunked encoding
+            exchange.sendResponseHeaders(status, 0);
+            return exchange.getResponseBody();
+        }
+
+        @Override
+        public SseStream openEventStream() throws IOException {
+            exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+            exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+            exchange.getResponseHeaders().set("Connection", "keep-alive");
+            exchange.sendResponseHeaders(200, 0);
+            eventStream = new EventStream(exchange.getResponseBody());
+            return eventStream;
+        }
+
+        @Override
+        public void onClose(Runnable callback) {
+            // HttpServer gives no disconnect notification; abandoned calls fall back to the timeout
+        }
+
+        @Override
+        public <T> void whenComplete(CompletableFuture<T> future, BiConsumer<? super T, ? super Throwable> callback) {
+            // Blocking transport: wait on the pool thread so the response is written from here
+            T value = null;
+            Throwable error = null;
+            try {
+                value = future.get();
+            } catch (ExecutionException e) {
+                error = e.getCause();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                error = e;
+            }
+            callback.accept(value, error);
+        }
+    }
+
+    /**
+     * SSE stream whose frames are written by the owning pool thread, so senders never block on the socket.
+     */
+    private static class EventStream implements SseStream {
+        private final OutputStream os;
+        private final BlockingQueue<String> frames = new LinkedBlockingQueue<>();
+        private volatile boolean open = true;
+
+        EventStream(OutputStream os) {
+            this.os = os;
+        }
+
+        @Override
+        public boolean send(String frame) {
+            if (!open) {
+                return false;
+            }
+            frames.add(frame);
+            return true;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open;
+        }
+
+        @Override
+        public void close() {
+            open = false;
+            frames.add("");
+        }
+
+        void pump() {
+            try {
+                while (open) {
+                    String frame = frames.poll(KEEPALIVE_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                    if (frame == null) {
+                        frame = ": keepalive\n\n";
+                    }
+                    if (!frame.isEmpty()) {
+                        os.write(frame.getBytes(StandardCharsets.UTF_8));
+                        os.flush();
+                    }
+                }
+            } catch (IOException e) {
+                logger.info("SSE stream closed by client");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                open = false;
+                try {
+                    os.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+}
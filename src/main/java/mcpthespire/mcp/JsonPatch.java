@@ -0,0 +1,101 @@
+package mcpthespire.mcp;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+
+import java.util.Map;
+
+/**
+ * Generates RFC 6902 JSON Patch documents. Objects are diffed key by key. Arrays keep their common
+ * prefix and suffix, so removing one card from the middle of a hand is a single "remove" op.
+ */
+final class JsonPatch {
+
+    private JsonPatch() {
+    }
+
+    /**
+     * The operations that turn {@code from} into {@code to}. Empty if they are equal.
+     */
+    static JsonArray diff(JsonElement from, JsonElement to) {
+        JsonArray ops = new JsonArray();
+        diff("", from, to, ops);
+        return ops;
+    }
+
+    private static void diff(String path, JsonElement from, JsonElement to, JsonArray ops) {
+        if (from.equals(to)) {
+            return;
+        }
+        if (from.isJsonObject() && to.isJsonObject()) {
+            diffObjects(path, from.getAsJsonObject(), to.getAsJsonObject(), ops);
+        } else if (from.isJsonArray() && to.isJsonArray()) {
+            diffArrays(path, from.getAsJsonArray(), to.getAsJsonArray(), ops);
+        } else {
+            ops.add(op("replace", path, to));
+        }
+    }
+
+    private static void diffObjects(String path, JsonObject from, JsonObject to, JsonArray ops) {
+        for (Map.Entry<String, JsonElement> entry : from.entrySet()) {
+            String childPath = path + "/" + escape(entry.getKey());
+            JsonElement target = to.get(entry.getKey());
+            if (target == null) {
+                ops.add(op("remove", childPath, null));
+            } else {
+                diff(childPath, entry.getValue(), target, ops);
+            }
+        }
+        for (Map.Entry<String, JsonElement> entry : to.entrySet()) {
+            if (!from.has(entry.getKey())) {
+                ops.add(op("add", path + "/" + escape(entry.getKey()), entry.getValue()));
+            }
+        }
+    }
+
+    private static void diffArrays(String path, JsonArray from, JsonArray to, JsonArray ops) {
+        int prefix = 0;
+        while (prefix < from.size() && prefix < to.size() && from.get(prefix).equals(to.get(prefix))) {
+            prefix++;
+        }
+        int suffix = 0;
+        while (suffix < from.size() - prefix && suffix < to.size() - prefix
+                && from.get(from.size() - 1 - suffix).equals(to.get(to.size() - 1 - suffix))) {
+            suffix++;
+        }
+
+        // Middle sections that differ: pair elements up by position, then remove or add the rest
+        int fromEnd = from.size() - suffix;
+        int toEnd = to.size() - suffix;
+        int paired = Math.min(fromEnd, toEnd) - prefix;
+        for (int i = 0; i < paired; i++) {
+            diff(path + "/" + (prefix + i), from.get(prefix + i), to.get(prefix + i), ops);
+        }
+        // Remove from the back so earlier indices stay valid
+        for (int i = fromEnd - 1; i >= prefix + paired; i--) {
+            ops.add(op("remove", path + "/" + i, null));
+        }
+        for (int i = prefix + paired; i < toEnd; i++) {
+            ops.add(op("add", path + "/" + i, to.get(i)));
+        }
+    }
+
+    private static JsonObject op(String name, String path, JsonElement value) {
+        JsonObject op = new JsonObject();
+        op.add("op", new JsonPrimitive(name));
+        op.add("path", new JsonPrimitive(path));
+        if (value != null) {
+            op.add("value", value);
+        }
+        return op;
+    }
+
+    /**
+     * Escape a key for use in a JSON Pointer (RFC 6901).
+     */
+    private static String escape(String key) {
+        return key.replace("~", "~0").replace("/", "~1");
+    }
+}
@@ -0,0 +1,67 @@
+package mcpthespire.mcp;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
+
+/**
+ * Transport-neutral view of a single HTTP request/response handled by {@link MCPServer}.
+ */
+interface MCPExchange {
+
+    String getRequestMethod();
+
+    /**
+     * Request path without the query string, e.g. "/mcp".
+     */
+    String getRequestPath();
+
+    /**
+     * First value of a request header (case-insensitive), or null if absent.
+     */
+    String getRequestHeader(String name);
+
+    InputStream getRequestBody();
+
+    /**
+     * Client address and port of the underlying connection, identifying it among open connections.
+     */
+    String getRemoteAddress();
+
+    void setResponseHeader(String name, String value);
+
+    /**
+     * A response header set so far (by the same name it was set with), or null.
+     */
+    String getResponseHeader(String name);
+
+    /**
+     * Send a complete response and finish the exchange. A null body sends no content.
+     */
+    void sendResponse(int status, byte[] body) throws IOException;
+
+    /**
+     * Send response headers for a body of unknown length and return a stream for the body.
+     * Closing the stream finishes the exchange.
+     */
+    OutputStream openResponseStream(int status) throws IOException;
+
+    /**
+     * Send 200 text/event-stream headers and keep the exchange open for server-sent events.
+     */
+    SseStream openEventStream() throws IOException;
+
+    /**
+     * Run {@code callback} if the client disconnects before the response is sent. Transports
+     * that cannot detect a disconnect may ignore it.
+     */
+    void onClose(Runnable callback);
+
+    /**
+     * Run {@code callback} once {@code future} completes. Blocking transports may wait on the
+     * calling thread; non-blocking transports must not park a thread while the future is pending.
+     */
+    <T> void whenComplete(CompletableFuture<T> future, BiConsumer<? super T, ? super Throwable> callback);
+}
@@ -0,0 +1,87 @@
+package mcpthespire.mcp;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters for the MCP server, served as JSON from the /metrics endpoint.
+ * Updated from HTTP threads, so every counter is a LongAdder.
+ */
+class MCPMetrics {
+
+    private final LongAdder responses = new LongAdder();
+    private final LongAdder responseBytes = new LongAdder();
+    private final LongAdder wireBytes = new LongAdder();
+
+    private final LongAdder compressedResponses = new LongAdder();
+    private final LongAdder compressionInputBytes = new LongAdder();
+    private final LongAdder compressionOutputBytes = new LongAdder();
+    private final LongAdder compressionNanos = new LongAdder();
+
+    private final LongAdder rejectedToolCalls = new LongAdder();
+    private final LongAdder abandonedToolCalls = new LongAdder();
+    private final LongAdder cancelledToolCalls = new LongAdder();
+
+    /**
+     * Record one JSON response: its serialized size, the bytes actually sent, and how long compression took (0 if raw).
+     */
+    void recordResponse(long serializedBytes, long sentBytes, boolean compressed, long compressNanos) {
+        responses.increment();
+        responseBytes.add(serializedBytes);
+        wireBytes.add(sentBytes);
+        if (compressed) {
+            compressedResponses.increment();
+            compressionInputBytes.add(serializedBytes);
+            compressionOutputBytes.add(sentBytes);
+            compressionNanos.add(compressNanos);
+        }
+    }
+
+    /**
+     * A game-modifying tool call turned away because the queue was full.
+     */
+    void recordRejectedToolCall() {
+        rejectedToolCalls.increment();
+    }
+
+    /**
+     * A queued tool call dropped before it ran because its caller stopped waiting.
+     */
+    void recordAbandonedToolCall() {
+        abandonedToolCalls.increment();
+    }
+
+    /**
+     * A queued or running tool call cancelled by the client with notifications/cancelled.
+     */
+    void recordCancelledToolCall() {
+        cancelledToolCalls.increment();
+    }
+
+    Map<String, Object> snapshot() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("responses", responses.sum());
+        result.put("response_bytes", responseBytes.sum());
+        result.put("wire_bytes", wireBytes.sum());
+
+        long compressed = compressedResponses.sum();
+        long compressionIn = compressionInputBytes.sum();
+        long compressionOut = compressionOutputBytes.sum();
+        Map<String, Object> compression = new LinkedHashMap<>();
+        compression.put("responses", compressed);
+        compression.put("input_bytes", compressionIn);
+        compression.put("output_bytes", compressionOut);
+        compression.put("ratio", compressionOut > 0 ? (double) compressionIn / compressionOut : 0.0);
+        compression.put("total_ms", compressionNanos.sum() / 1e6);
+        compression.put("avg_ms", compressed > 0 ? compressionNanos.sum() / 1e6 / compressed : 0.0);
+        result.put("compression", compression);
+
+        Map<String, Object> toolCalls = new LinkedHashMap<>();
+        toolCalls.put("rejected", rejectedToolCalls.sum());
+        toolCalls.put("abandoned", abandonedToolCalls.sum());
+        toolCalls.put("cancelled", cancelledToolCalls.sum());
+        result.put("tool_calls", toolCalls);
+        return result;
+    }
+}
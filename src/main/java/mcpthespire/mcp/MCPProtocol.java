@@ -5,8 +5,15 @@ import com.google.gson.GsonBuilder;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
 import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.JsonSerializer;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.ArrayList;
@@ -26,6 +33,10 @@ public class MCPProtocol {
     public static final String METHOD_TOOLS_LIST = "tools/list";
     public static final String METHOD_TOOLS_CALL = "tools/call";
     public static final String METHOD_PING = "ping";
+    public static final String METHOD_CANCELLED = "notifications/cancelled";
+
+    // Server-to-client notifications
+    public static final String NOTIFICATION_STATE_CHANGED = "notifications/game/state_changed";
 
     // Error codes
     public static final int ERROR_PARSE = -32700;
@@ -33,8 +44,18 @@ public class MCPProtocol {
     public static final int ERROR_METHOD_NOT_FOUND = -32601;
     public static final int ERROR_INVALID_PARAMS = -32602;
     public static final int ERROR_INTERNAL = -32603;
+    // Implementation-defined server errors (-32000 to -32099)
+    public static final int ERROR_QUEUE_FULL = -32001;
+    public static final int ERROR_TIMEOUT = -32002;
+    public static final int ERROR_CANCELLED = -32003;
+
+    // Serializes the data behind a JsonPayload; same settings as the envelope gson
+    private static final Gson payloadGson = new GsonBuilder().create();
 
-    private static final Gson gson = new GsonBuilder().create();
+    private static final Gson gson = new GsonBuilder()
+        .registerTypeAdapter(JsonPayload.class, (JsonSerializer<JsonPayload>) (payload, type, context) ->
+            new JsonPrimitive(payloadGson.toJson(payload.data)))
+        .create();
 
     private static final JsonParser jsonParser = new JsonParser();
 
@@ -45,6 +66,15 @@ public class MCPProtocol {
         return jsonParser.parse(json).getAsJsonObject();
     }
 
+    /**
+     * Parse a JSON-RPC message, which is either a single request object or a batch array,
+     * straight from the request body. Throws JsonSyntaxException on malformed JSON and
+     * JsonIOException if reading the body fails.
+     */
+    public static JsonElement parseMessage(Reader reader) {
+        return jsonParser.parse(reader);
+    }
+
     /**
      * Get the method from a request.
      */
@@ -77,6 +107,73 @@ public class MCPProtocol {
         return gson.toJson(response);
     }
 
+    /**
+     * Write a successful response to {@code out} in one pass. Equivalent to {@link #buildResponse}, but
+     * {@link JsonPayload} text is serialized and escaped straight into the output instead of into a String first.
+     */
+    public static void writeResponse(Writer out, JsonElement id, Object result) throws IOException {
+        out.write("{\"jsonrpc\":\"" + JSONRPC_VERSION + "\"");
+        // Null members are left out, as gson does for the built response
+        if (!isNull(id)) {
+            out.write(",\"id\":");
+            gson.toJson(id, out);
+        }
+        if (!isNull(result)) {
+            out.write(",\"result\":");
+            writeValue(out, result);
+        }
+        out.write('}');
+        out.flush();
+    }
+
+    /**
+     * Writes the maps and lists of a result as JSON punctuation and hands every other value to gson,
+     * so a JsonPayload can be escaped into the output as the contents of a string.
+     */
+    private static void writeValue(Writer out, Object value) throws IOException {
+        if (isNull(value)) {
+            out.write("null");
+        } else if (value instanceof JsonPayload) {
+            out.write('"');
+            payloadGson.toJson(((JsonPayload) value).data, new JsonStringWriter(out));
+            out.write('"');
+        } else if (value instanceof Map) {
+            out.write('{');
+            boolean first = true;
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                if (isNull(entry.getValue())) {
+                    continue;
+                }
+                if (!first) {
+                    out.write(',');
+                }
+                first = false;
+                out.write('"');
+                new JsonStringWriter(out).write(String.valueOf(entry.getKey()));
+                out.write("\":");
+                writeValue(out, entry.getValue());
+            }
+            out.write('}');
+        } else if (value instanceof Collection) {
+            out.write('[');
+            boolean first = true;
+            for (Object element : (Collection<?>) value) {
+                if (!first) {
+                    out.write(',');
+                }
+                first = false;
+                writeValue(out, element);
+            }
+            out.write(']');
+        } else {
+            gson.toJson(value, value.getClass(), out);
+        }
+    }
+
+    private static boolean isNull(Object value) {
+        return value == null || value instanceof JsonNull;
+    }
+
     /**
      * Build an error response.
      */
@@ -93,6 +190,19 @@ public class MCPProtocol {
         return gson.toJson(response);
     }
 
+    /**
+     * Build a notification (a request without an id).
+     */
+    public static String buildNotification(String method, Object params) {
+        JsonObject notification = new JsonObject();
+        notification.addProperty("jsonrpc", JSONRPC_VERSION);
+        notification.addProperty("method", method);
+        if (params != null) {
+            notification.add("params", gson.toJsonTree(params));
+        }
+        return gson.toJson(notification);
+    }
+
     /**
      * Build the initialize response.
      */
@@ -144,6 +254,7 @@ public class MCPProtocol {
 
     /**
      * Build a tool call result with JSON data.
+     * The data is serialized into the text field when the response is written, not here.
      */
     public static Map<String, Object> buildToolCallResultJson(Object data) {
         Map<String, Object> result = new HashMap<>();
@@ -151,7 +262,7 @@ public class MCPProtocol {
         List<Map<String, Object>> content = new ArrayList<>();
         Map<String, Object> textContent = new HashMap<>();
         textContent.put("type", "text");
-        textContent.put("text", gson.toJson(data));
+        textContent.put("text", new JsonPayload(data));
         content.add(textContent);
 
         result.put("content", content);
@@ -203,4 +314,98 @@ public class MCPProtocol {
         prop.put("enum", values);
         return prop;
     }
+
+    /**
+     * Data that is sent as a JSON-encoded string, e.g. the text content of a tool result.
+     */
+    public static final class JsonPayload {
+        private final Object data;
+
+        JsonPayload(Object data) {
+            this.data = data;
+        }
+
+        @Override
+        public String toString() {
+            return payloadGson.toJson(data);
+        }
+    }
+
+    /**
+     * Escapes everything written to it as the contents of a JSON string, matching
+     * JsonWriter's HTML-safe escaping.
+     */
+    private static final class JsonStringWriter extends Writer {
+        private final Writer out;
+
+        JsonStringWriter(Writer out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(int c) throws IOException {
+            switch (c) {
+                case '"':
+                    out.write("\\\"");
+                    break;
+                case '\\':
+                    out.write("\\\\");
+                    break;
+                case '\t':
+                    out.write("\\t");
+                    break;
+                case '\b':
+                    out.write("\\b");
+                    break;
+                case '\n':
+                    out.write("\\n");
+                    break;
+                case '\r':
+                    out.write("\\r");
+                    break;
+                case '\f':
+                    out.write("\\f");
+                    break;
+                case '<':
+                case '>':
+                case '&':
+                case '=':
+                case '\'':
+                case '\u2028':
+                case '\u2029':
+                    out.write(String.format("\\u%04x", c));
+                    break;
+                default:
+                    if (c < 0x20) {
+                        out.write(String.format("\\u%04x", c));
+                    } else {
+                        out.write(c);
+                    }
+            }
+        }
+
+        @Override
+        public void write(char[] buffer, int offset, int length) throws IOException {
+            for (int i = offset; i < offset + length; i++) {
+                write(buffer[i]);
+            }
+        }
+
+        @Override
+        public void write(String str, int offset, int length) throws IOException {
+            for (int i = offset; i < offset + length; i++) {
+                write(str.charAt(i));
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() {
+            // The underlying writer belongs to the caller
+        }
+    }
 }
@@ -0,0 +1,61 @@
+package mcpthespire.mcp;
+
+import com.google.gson.JsonElement;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * A JSON-RPC response that is serialized straight to the transport's output stream,
+ * so large tool results are never built up as an intermediate tree or String.
+ */
+interface MCPResponse {
+
+    void writeTo(Writer out) throws IOException;
+
+    /**
+     * Serialize to a String. Only for small responses and diagnostics.
+     */
+    default String toJson() {
+        StringWriter out = new StringWriter();
+        try {
+            writeTo(out);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return out.toString();
+    }
+
+    /**
+     * A response that is already serialized, e.g. an error from {@link MCPProtocol#buildErrorResponse}.
+     */
+    static MCPResponse of(String json) {
+        return out -> out.write(json);
+    }
+
+    static MCPResponse result(JsonElement id, Object result) {
+        return out -> MCPProtocol.writeResponse(out, id, result);
+    }
+
+    static MCPResponse error(JsonElement id, int code, String message) {
+        return of(MCPProtocol.buildErrorResponse(id, code, message));
+    }
+
+    /**
+     * The response to a JSON-RPC batch: a JSON array of the individual responses, in order.
+     */
+    static MCPResponse batch(List<MCPResponse> responses) {
+        return out -> {
+            out.write('[');
+            for (int i = 0; i < responses.size(); i++) {
+                if (i > 0) {
+                    out.write(',');
+                }
+                responses.get(i).writeTo(out);
+            }
+            out.write(']');
+        };
+    }
+}
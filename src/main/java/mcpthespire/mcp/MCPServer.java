@@ -1,25 +1,34 @@
 package mcpthespire.mcp;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
+import com.google.gson.JsonIOException;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonSyntaxException;
-import com.sun.net.httpserver.HttpExchange;
-import com.sun.net.httpserver.HttpHandler;
-import com.sun.net.httpserver.HttpServer;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.io.*;
-import java.net.InetSocketAddress;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * MCP Server implementation using Streamable HTTP transport.
@@ -31,28 +40,80 @@ public class MCPServer implements Runnable {
     private static final String SERVER_NAME = "MCPTheSpire";
     private static final String SERVER_VERSION = "1.0.0";
 
+    // HTTP transports selectable via the "transport" config key
+    public static final String TRANSPORT_JDK = "jdk";
+    public static final String TRANSPORT_NIO = "nio";
+
+    private static final long TOOL_CALL_TIMEOUT_MS = 30000;
+    private static final long MAX_TOOL_CALL_DEADLINE_MS = 120000;
+    private static final long DEFAULT_WAIT_FOR_READY_MS = 10000;
+    private static final long MAX_WAIT_FOR_READY_TIMEOUT_MS = 60000;
+    private static final int READ_ONLY_POOL_SIZE = 4;
+    public static final int DEFAULT_MAX_REQUEST_BODY_BYTES = 8 * 1024 * 1024;
+    public static final int DEFAULT_COMPRESSION_MIN_BYTES = 1024;
+    public static final float DEFAULT_FRAME_BUDGET_MS = 2.0f;
+    public static final int DEFAULT_MAX_QUEUED_TOOL_CALLS = 16;
+    private static final long SESSION_IDLE_TIMEOUT_MS = 30 * 60 * 1000;
+    private static final long SESSION_SWEEP_INTERVAL_MS = 60 * 1000;
+
+    /**
+     * BaseMod hooks that drive the game-thread scheduler, in the order they run within a frame.
+     * Any hook may be skipped (e.g. update hooks in some menus); the frame budget is shared by
+     * whichever hooks do run, and resets when a hook at or before the previous one is seen.
+     */
+    public enum FramePhase {
+        PRE_UPDATE,   // before the game update - actions apply in this frame's update
+        POST_UPDATE,  // after the update and state-change detection - readiness is current
+        POST_RENDER   // fallback for screens where the update hooks do not fire
+    }
+
     private final String host;
     private final int port;
     private final MCPToolHandler toolHandler;
     private final Gson gson;
-    private HttpServer httpServer;
+    private String transport = TRANSPORT_JDK;
+    private int maxRequestBodyBytes = DEFAULT_MAX_REQUEST_BODY_BYTES;
+    private boolean compressionEnabled = true;
+    private int compressionMinBytes = DEFAULT_COMPRESSION_MIN_BYTES;
+    private final MCPMetrics metrics = new MCPMetrics();
+    private HttpTransport httpTransport;
+
+    // Times out tool calls that are waiting on the game thread without parking a thread per call
+    private final ScheduledExecutorService timeoutScheduler;
+    // Runs read-only tool calls (in parallel for a batch) so a slow snapshot read never holds a transport thread
+    private final ExecutorService readOnlyExecutor;
 
     private volatile boolean running = true;
-    private String sessionId = null;
 
-    // Queue for pending tool calls that need to be executed on the game thread
-    private final BlockingQueue<PendingToolCall> pendingToolCalls;
-    private final BlockingQueue<Map<String, Object>> toolCallResults;
+    // Sessions created by initialize, keyed by Mcp-Session-Id. Clients that never send the header share defaultSession.
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private Session defaultSession;
+    // Round-robin order for game-thread dispatch; replaced (never mutated) when sessions come and go
+    private volatile Session[] sessionOrder;
+    private int nextSessionIndex = 0; // Game thread only
+    private int maxQueuedToolCalls = DEFAULT_MAX_QUEUED_TOOL_CALLS;
+
+    // Whether state-change notifications carry the compact screen state
+    private boolean notifyIncludeState = true;
+    // wait_for_ready calls parked until the game thread signals a new state
+    private final Set<ReadyWaiter> readyWaiters = ConcurrentHashMap.newKeySet();
 
     // Pending batch execution state (for execute_actions across multiple frames)
     private PendingBatchExecution pendingBatch = null;
     private long lastBatchActionTime = 0;
-    private static final long MIN_BATCH_ACTION_INTERVAL_MS = 50; // Minimum time between batch actions
+    private long batchMinIntervalMs = 0; // Optional floor between batch actions; pacing is otherwise readiness-driven
     private static final long MAX_WAIT_FOR_READY_MS = 10000; // Maximum time to wait for ready_for_command
 
     // Waiting for ready state
     private long waitStartTime = 0;
 
+    // Frame-budgeted scheduling of game-thread work (game thread only)
+    private long frameBudgetNanos = (long) (DEFAULT_FRAME_BUDGET_MS * 1_000_000L);
+    private FramePhase lastPhase = FramePhase.POST_RENDER;
+    private long frameBudgetRemainingNanos = 0;
+    // Set by onGameStateChanged; the snapshot and notifications go out at the next hook with budget left
+    private boolean stateChangePending = false;
+
     public MCPServer() {
         this("127.0.0.1", 8080);
     }
@@ -66,31 +127,93 @@ public class MCPServer implements Runnable {
         this.port = port;
         this.toolHandler = new MCPToolHandler();
         this.gson = new Gson();
-        this.pendingToolCalls = new LinkedBlockingQueue<>();
-        this.toolCallResults = new LinkedBlockingQueue<>();
+        this.defaultSession = new Session(null, maxQueuedToolCalls);
+        this.sessionOrder = new Session[]{defaultSession};
+        this.timeoutScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "MCPServer-timeouts");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.readOnlyExecutor = Executors.newFixedThreadPool(READ_ONLY_POOL_SIZE, runnable -> {
+            Thread thread = new Thread(runnable, "MCPServer-readonly");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Select the HTTP transport ({@link #TRANSPORT_JDK} or {@link #TRANSPORT_NIO}). Must be called before {@link #run()}.
+     */
+    public void setTransport(String transport) {
+        this.transport = TRANSPORT_NIO.equalsIgnoreCase(transport) ? TRANSPORT_NIO : TRANSPORT_JDK;
+    }
+
+    public String getTransport() {
+        return transport;
+    }
+
+    /**
+     * Reject request bodies larger than this with 413. Must be called before {@link #run()}.
+     */
+    public void setMaxRequestBodyBytes(int maxRequestBodyBytes) {
+        this.maxRequestBodyBytes = maxRequestBodyBytes > 0 ? maxRequestBodyBytes : DEFAULT_MAX_REQUEST_BODY_BYTES;
+    }
+
+    public int getMaxRequestBodyBytes() {
+        return maxRequestBodyBytes;
+    }
+
+    /**
+     * Maximum number of game-modifying tool calls each session may have waiting for the game thread.
+     * Further calls are rejected with {@link MCPProtocol#ERROR_QUEUE_FULL}. Must be called before {@link #run()}.
+     */
+    public void setMaxQueuedToolCalls(int maxQueuedToolCalls) {
+        this.maxQueuedToolCalls = maxQueuedToolCalls > 0 ? maxQueuedToolCalls : DEFAULT_MAX_QUEUED_TOOL_CALLS;
+        this.defaultSession = new Session(null, this.maxQueuedToolCalls);
+        this.sessionOrder = new Session[]{defaultSession};
+    }
+
+    /**
+     * Minimum time between execute_actions steps, on top of waiting for the engine to settle. 0 disables the floor.
+     */
+    public void setBatchMinIntervalMs(long batchMinIntervalMs) {
+        this.batchMinIntervalMs = Math.max(0, batchMinIntervalMs);
+    }
+
+    /**
+     * Maximum game-thread time per frame spent on queued tool calls.
+     */
+    public void setFrameBudgetMs(float frameBudgetMs) {
+        this.frameBudgetNanos = (long) (Math.max(0.1f, frameBudgetMs) * 1_000_000L);
+    }
+
+    /**
+     * Compress JSON responses of at least {@code minBytes} when the client sends a matching Accept-Encoding.
+     */
+    public void setCompression(boolean enabled, int minBytes) {
+        this.compressionEnabled = enabled;
+        this.compressionMinBytes = Math.max(0, minBytes);
+    }
+
+    /**
+     * Include the compact screen state (as returned by get_screen_state) in state-change notifications.
+     */
+    public void setNotifyIncludeState(boolean notifyIncludeState) {
+        this.notifyIncludeState = notifyIncludeState;
     }
 
     @Override
     public void run() {
         try {
-            httpServer = HttpServer.create(new InetSocketAddress(host, port), 0);
-            httpServer.setExecutor(Executors.newFixedThreadPool(4));
-
-            // Main MCP endpoint - Streamable HTTP
-            httpServer.createContext("/mcp", new MCPHandler());
-
-            // Health check endpoint
-            httpServer.createContext("/health", exchange -> {
-                String response = "{\"status\":\"ok\"}";
-                exchange.getResponseHeaders().set("Content-Type", "application/json");
-                exchange.sendResponseHeaders(200, response.length());
-                try (OutputStream os = exchange.getResponseBody()) {
-                    os.write(response.getBytes(StandardCharsets.UTF_8));
-                }
-            });
-
-            httpServer.start();
-            logger.info("MCP Server (Streamable HTTP) started on http://" + host + ":" + port);
+            if (TRANSPORT_NIO.equals(transport)) {
+                httpTransport = new NioHttpTransport(this, host, port);
+            } else {
+                httpTransport = new JdkHttpTransport(this, host, port);
+            }
+            httpTransport.start();
+            timeoutScheduler.scheduleWithFixedDelay(this::evictIdleSessions,
+                SESSION_SWEEP_INTERVAL_MS, SESSION_SWEEP_INTERVAL_MS, TimeUnit.MILLISECONDS);
+            logger.info("MCP Server (Streamable HTTP, " + transport + " transport) started on http://" + host + ":" + port);
             logger.info("MCP endpoint: http://" + host + ":" + port + "/mcp");
 
             // Keep running
@@ -104,212 +227,450 @@ public class MCPServer implements Runnable {
     }
 
     /**
-     * Streamable HTTP Handler - handles all MCP communication
+     * Handle one HTTP exchange from any transport - the Streamable HTTP endpoint and the health check.
      */
-    private class MCPHandler implements HttpHandler {
-        @Override
-        public void handle(HttpExchange exchange) throws IOException {
-            String method = exchange.getRequestMethod();
+    void handleExchange(MCPExchange exchange) throws IOException {
+        String path = exchange.getRequestPath();
 
-            // Handle CORS preflight
-            if ("OPTIONS".equalsIgnoreCase(method)) {
-                handleCORS(exchange);
-                return;
+        // Health check endpoint
+        if (path.startsWith("/health")) {
+            exchange.setResponseHeader("Content-Type", "application/json");
+            exchange.sendResponse(200, "{\"status\":\"ok\"}".getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+
+        // Server metrics (response sizes, compression)
+        if (path.startsWith("/metrics")) {
+            exchange.setResponseHeader("Content-Type", "application/json");
+            Map<String, Object> snapshot = metrics.snapshot();
+            snapshot.put("sessions", sessions.size());
+            exchange.sendResponse(200, gson.toJson(snapshot).getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+
+        // Main MCP endpoint - Streamable HTTP
+        if (!path.startsWith("/mcp")) {
+            exchange.sendResponse(404, null);
+            return;
+        }
+
+        String method = exchange.getRequestMethod();
+
+        // Handle CORS preflight
+        if ("OPTIONS".equalsIgnoreCase(method)) {
+            handleCORS(exchange);
+            return;
+        }
+
+        // Set CORS headers for all responses
+        exchange.setResponseHeader("Access-Control-Allow-Origin", "*");
+        exchange.setResponseHeader("Access-Control-Allow-Methods", "GET, POST, DELETE, OPTIONS");
+        exchange.setResponseHeader("Access-Control-Allow-Headers", "Content-Type, Accept, Mcp-Session-Id");
+        exchange.setResponseHeader("Access-Control-Expose-Headers", "Mcp-Session-Id");
+
+        if ("POST".equalsIgnoreCase(method)) {
+            handlePost(exchange);
+        } else if ("GET".equalsIgnoreCase(method)) {
+            // GET for SSE stream (optional, for server-initiated notifications)
+            handleGet(exchange);
+        } else if ("DELETE".equalsIgnoreCase(method)) {
+            // DELETE to close session
+            handleDelete(exchange);
+        } else {
+            exchange.sendResponse(405, null);
+        }
+    }
+
+    private void handleCORS(MCPExchange exchange) throws IOException {
+        exchange.setResponseHeader("Access-Control-Allow-Origin", "*");
+        exchange.setResponseHeader("Access-Control-Allow-Methods", "GET, POST, DELETE, OPTIONS");
+        exchange.setResponseHeader("Access-Control-Allow-Headers", "Content-Type, Accept, Mcp-Session-Id");
+        exchange.setResponseHeader("Access-Control-Expose-Headers", "Mcp-Session-Id");
+        exchange.setResponseHeader("Access-Control-Max-Age", "86400");
+        exchange.sendResponse(204, null);
+    }
+
+    private void handlePost(MCPExchange exchange) throws IOException {
+        exchange.setResponseHeader("Content-Type", "application/json");
+
+        Session session = resolveSession(exchange);
+        if (session == null) {
+            sendUnknownSession(exchange);
+            return;
+        }
+
+        // Reject oversized bodies up front when the client declares the length
+        String contentLength = exchange.getRequestHeader("Content-Length");
+        if (contentLength != null) {
+            try {
+                if (Long.parseLong(contentLength.trim()) > maxRequestBodyBytes) {
+                    sendRequestTooLarge(exchange);
+                    return;
+                }
+            } catch (NumberFormatException ignored) {
+                // The bounded stream below still enforces the limit
             }
+        }
 
-            // Set CORS headers for all responses
-            exchange.getResponseHeaders().set("Access-Control-Allow-Origin", "*");
-            exchange.getResponseHeaders().set("Access-Control-Allow-Methods", "GET, POST, DELETE, OPTIONS");
-            exchange.getResponseHeaders().set("Access-Control-Allow-Headers", "Content-Type, Accept, Mcp-Session-Id");
-            exchange.getResponseHeaders().set("Access-Control-Expose-Headers", "Mcp-Session-Id");
-
-            if ("POST".equalsIgnoreCase(method)) {
-                handlePost(exchange);
-            } else if ("GET".equalsIgnoreCase(method)) {
-                // GET for SSE stream (optional, for server-initiated notifications)
-                handleGet(exchange);
-            } else if ("DELETE".equalsIgnoreCase(method)) {
-                // DELETE to close session
-                handleDelete(exchange);
-            } else {
-                exchange.sendResponseHeaders(405, -1);
+        // Parse the request straight from the body stream, without copying it into a String first
+        CompletableFuture<MCPResponse> response;
+        try (Reader reader = new InputStreamReader(
+                new BoundedInputStream(exchange.getRequestBody(), maxRequestBodyBytes), StandardCharsets.UTF_8)) {
+            JsonElement message = MCPProtocol.parseMessage(reader);
+            response = handleMessage(message, session, exchange);
+        } catch (JsonIOException e) {
+            if (e.getCause() instanceof RequestTooLargeException) {
+                sendRequestTooLarge(exchange);
+                return;
             }
+            throw new IOException("Error reading MCP request", e.getCause());
+        } catch (JsonSyntaxException e) {
+            response = CompletableFuture.completedFuture(
+                MCPResponse.error(null, MCPProtocol.ERROR_PARSE, "Parse error: " + e.getMessage()));
+        } catch (Exception e) {
+            response = new CompletableFuture<>();
+            response.completeExceptionally(e);
         }
+        // Tool calls waiting on the game thread complete later; the transport decides how to wait
+        CompletableFuture<MCPResponse> pendingResponse = response;
+        exchange.onClose(() -> pendingResponse.cancel(false));
+        exchange.whenComplete(response, (body, error) -> sendJsonResponse(exchange, session, body, error));
+    }
+
+    private void sendRequestTooLarge(MCPExchange exchange) throws IOException {
+        logger.warn("Rejecting MCP request larger than " + maxRequestBodyBytes + " bytes");
+        String errorResponse = MCPProtocol.buildErrorResponse(null, MCPProtocol.ERROR_INVALID_REQUEST,
+            "Request body exceeds " + maxRequestBodyBytes + " bytes");
+        exchange.sendResponse(413, errorResponse.getBytes(StandardCharsets.UTF_8));
+    }
 
-        private void handleCORS(HttpExchange exchange) throws IOException {
-            exchange.getResponseHeaders().set("Access-Control-Allow-Origin", "*");
-            exchange.getResponseHeaders().set("Access-Control-Allow-Methods", "GET, POST, DELETE, OPTIONS");
-            exchange.getResponseHeaders().set("Access-Control-Allow-Headers", "Content-Type, Accept, Mcp-Session-Id");
-            exchange.getResponseHeaders().set("Access-Control-Expose-Headers", "Mcp-Session-Id");
-            exchange.getResponseHeaders().set("Access-Control-Max-Age", "86400");
-            exchange.sendResponseHeaders(204, -1);
+    /**
+     * The session named by the Mcp-Session-Id header, the shared default session if there is no header,
+     * or null if the id is unknown (never issued, deleted or evicted).
+     */
+    private Session resolveSession(MCPExchange exchange) {
+        String id = exchange.getRequestHeader("Mcp-Session-Id");
+        if (id == null) {
+            return defaultSession;
         }
+        Session session = sessions.get(id);
+        if (session != null) {
+            session.touch();
+        }
+        return session;
+    }
 
-        private void handlePost(HttpExchange exchange) throws IOException {
-            exchange.getResponseHeaders().set("Content-Type", "application/json");
+    private void sendUnknownSession(MCPExchange exchange) throws IOException {
+        // Per the Streamable HTTP spec, 404 tells the client to initialize a new session
+        String errorResponse = MCPProtocol.buildErrorResponse(null, MCPProtocol.ERROR_INVALID_REQUEST,
+            "Unknown or expired session - send initialize to start a new one");
+        exchange.setResponseHeader("Content-Type", "application/json");
+        exchange.sendResponse(404, errorResponse.getBytes(StandardCharsets.UTF_8));
+    }
 
-            // Read request body
-            String requestBody;
-            try (BufferedReader reader = new BufferedReader(new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8))) {
-                StringBuilder sb = new StringBuilder();
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    sb.append(line);
-                }
-                requestBody = sb.toString();
+    private void sendJsonResponse(MCPExchange exchange, Session session, MCPResponse response, Throwable error) {
+        try {
+            if (error instanceof CancellationException) {
+                logger.info("Client went away before the response was ready");
+                return;
+            }
+            if (error != null) {
+                logger.error("Error handling MCP request", error);
+                String errorResponse = MCPProtocol.buildErrorResponse(null, MCPProtocol.ERROR_INTERNAL, error.getMessage());
+                exchange.sendResponse(500, errorResponse.getBytes(StandardCharsets.UTF_8));
+                return;
             }
 
-            logger.info("Received MCP request: " + requestBody);
+            // Echo the session ID, unless an initialize in this request already set the new session's
+            if (session.id != null && exchange.getResponseHeader("Mcp-Session-Id") == null) {
+                exchange.setResponseHeader("Mcp-Session-Id", session.id);
+            }
 
-            try {
-                String response = handleMessage(requestBody, exchange);
+            // Serialize straight into the response body; large results never exist as one String.
+            // Bodies past the threshold are compressed if the client accepts it, smaller ones go out raw.
+            String encoding = null;
+            if (compressionEnabled) {
+                exchange.setResponseHeader("Vary", "Accept-Encoding");
+                encoding = CompressedResponseStream.negotiate(exchange.getRequestHeader("Accept-Encoding"));
+            }
+            OutputStream body = new CompressedResponseStream(exchange, 200, encoding, compressionMinBytes, metrics);
+            try (Writer out = new BufferedWriter(new OutputStreamWriter(body, StandardCharsets.UTF_8))) {
+                response.writeTo(out);
+            }
+        } catch (IOException e) {
+            logger.error("Error writing MCP response", e);
+        }
+    }
 
-                // Add session ID header if we have one
-                if (sessionId != null) {
-                    exchange.getResponseHeaders().set("Mcp-Session-Id", sessionId);
-                }
+    private void handleGet(MCPExchange exchange) throws IOException {
+        // GET request for SSE stream - used for server-to-client notifications
+        String accept = exchange.getRequestHeader("Accept");
 
-                byte[] responseBytes = response.getBytes(StandardCharsets.UTF_8);
-                exchange.sendResponseHeaders(200, responseBytes.length);
-                try (OutputStream os = exchange.getResponseBody()) {
-                    os.write(responseBytes);
-                    os.flush();
-                }
-            } catch (Exception e) {
-                logger.error("Error handling MCP request", e);
-                String errorResponse = MCPProtocol.buildErrorResponse(null, MCPProtocol.ERROR_INTERNAL, e.getMessage());
-                byte[] responseBytes = errorResponse.getBytes(StandardCharsets.UTF_8);
-                exchange.sendResponseHeaders(500, responseBytes.length);
-                try (OutputStream os = exchange.getResponseBody()) {
-                    os.write(responseBytes);
-                }
+        if (accept != null && accept.contains("text/event-stream")) {
+            Session session = resolveSession(exchange);
+            if (session == null) {
+                sendUnknownSession(exchange);
+                return;
+            }
+            if (session.id != null) {
+                exchange.setResponseHeader("Mcp-Session-Id", session.id);
             }
+
+            // Keepalives are sent by the transport for as long as the client stays connected
+            SseStream stream = exchange.openEventStream();
+            stream.send(": connected\n\n");
+            session.eventStreams.add(stream);
+            logger.info("SSE stream opened, listeners in session: " + session.eventStreams.size());
+        } else {
+            // Regular GET - return server info
+            Map<String, String> serverInfo = new HashMap<>();
+            serverInfo.put("name", SERVER_NAME);
+            serverInfo.put("version", SERVER_VERSION);
+            serverInfo.put("transport", "streamable-http");
+            String info = gson.toJson(serverInfo);
+            exchange.setResponseHeader("Content-Type", "application/json");
+            exchange.sendResponse(200, info.getBytes(StandardCharsets.UTF_8));
         }
+    }
 
-        private void handleGet(HttpExchange exchange) throws IOException {
-            // GET request for SSE stream - used for server-to-client notifications
-            String accept = exchange.getRequestHeaders().getFirst("Accept");
+    private void handleDelete(MCPExchange exchange) throws IOException {
+        Session session = resolveSession(exchange);
+        if (session == null) {
+            sendUnknownSession(exchange);
+            return;
+        }
+        if (session == defaultSession) {
+            // No session to end; just drop the shared streams as before
+            session.closeEventStreams();
+        } else {
+            closeSession(session, "Session deleted");
+        }
+        exchange.sendResponse(204, null);
+        logger.info("MCP session closed: " + session.id);
+    }
 
-            if (accept != null && accept.contains("text/event-stream")) {
-                // Return SSE stream for notifications
-                exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
-                exchange.getResponseHeaders().set("Cache-Control", "no-cache");
-                exchange.getResponseHeaders().set("Connection", "keep-alive");
+    private void registerSession(Session session) {
+        synchronized (sessions) {
+            sessions.put(session.id, session);
+            rebuildSessionOrder();
+        }
+    }
 
-                if (sessionId != null) {
-                    exchange.getResponseHeaders().set("Mcp-Session-Id", sessionId);
-                }
+    /**
+     * Remove a session, close its streams, fail its queued tool calls so they never run and end its wait_for_ready calls.
+     */
+    private void closeSession(Session session, String reason) {
+        synchronized (sessions) {
+            if (!sessions.remove(session.id, session)) {
+                return;
+            }
+            rebuildSessionOrder();
+        }
+        session.closeEventStreams();
+        for (PendingToolCall pending : session.inFlightCalls.values()) {
+            pending.response.complete(MCPResponse.error(pending.id, MCPProtocol.ERROR_CANCELLED, reason));
+        }
+        for (ReadyWaiter waiter : readyWaiters) {
+            if (waiter.session == session) {
+                waiter.response.complete(MCPResponse.error(waiter.id, MCPProtocol.ERROR_CANCELLED, reason));
+            }
+        }
+    }
 
-                exchange.sendResponseHeaders(200, 0);
+    private void rebuildSessionOrder() {
+        List<Session> order = new ArrayList<>();
+        order.add(defaultSession);
+        order.addAll(sessions.values());
+        sessionOrder = order.toArray(new Session[0]);
+    }
 
-                try (OutputStream os = exchange.getResponseBody();
-                     PrintWriter writer = new PrintWriter(new OutputStreamWriter(os, StandardCharsets.UTF_8), true)) {
+    /**
+     * Drop sessions that have sent nothing for {@link #SESSION_IDLE_TIMEOUT_MS} and have no open stream or pending call.
+     */
+    private void evictIdleSessions() {
+        long cutoff = System.currentTimeMillis() - SESSION_IDLE_TIMEOUT_MS;
+        for (Session session : sessions.values()) {
+            session.eventStreams.removeIf(stream -> !stream.isOpen());
+            if (session.lastActivity < cutoff && session.eventStreams.isEmpty() && session.inFlightCalls.isEmpty()) {
+                logger.info("Evicting idle MCP session " + session.id);
+                closeSession(session, "Session expired");
+            }
+        }
+    }
 
-                    // Send initial comment to establish connection
-                    writer.print(": connected\n\n");
-                    writer.flush();
-                    os.flush();
+    private CompletableFuture<MCPResponse> handleMessage(JsonElement parsed, Session session, MCPExchange exchange) {
+        if (parsed.isJsonArray()) {
+            return handleBatch(parsed.getAsJsonArray(), session, exchange);
+        }
+        if (!parsed.isJsonObject()) {
+            return CompletableFuture.completedFuture(
+                MCPResponse.error(null, MCPProtocol.ERROR_INVALID_REQUEST, "Request must be an object or an array"));
+        }
 
-                    // Keep connection alive
-                    while (running) {
-                        Thread.sleep(30000);
-                        writer.print(": keepalive\n\n");
-                        writer.flush();
-                        os.flush();
-                    }
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                }
+        // Read-only calls may wait for a snapshot refresh; keep that off the transport's few worker threads
+        CompletableFuture<MCPResponse> response = handleRequest(parsed.getAsJsonObject(), session, exchange, readOnlyExecutor);
+        // Notifications don't require a response, but we'll send an empty success
+        return response != null ? response : CompletableFuture.completedFuture(MCPResponse.of("{}"));
+    }
+
+    /**
+     * Handle a JSON-RPC batch. Read-only tool calls run in parallel on the read-only pool, while
+     * game-modifying calls are queued for the game thread in the order they appear in the batch.
+     * The combined response is sent once every entry has completed.
+     */
+    private CompletableFuture<MCPResponse> handleBatch(JsonArray batch, Session session, MCPExchange exchange) {
+        if (batch.size() == 0) {
+            return CompletableFuture.completedFuture(
+                MCPResponse.error(null, MCPProtocol.ERROR_INVALID_REQUEST, "Empty batch"));
+        }
+
+        logger.info("MCP batch with " + batch.size() + " entries");
+        List<CompletableFuture<MCPResponse>> responses = new ArrayList<>();
+        for (JsonElement entry : batch) {
+            CompletableFuture<MCPResponse> response;
+            if (!entry.isJsonObject()) {
+                response = CompletableFuture.completedFuture(
+                    MCPResponse.error(null, MCPProtocol.ERROR_INVALID_REQUEST, "Batch entry must be an object"));
             } else {
-                // Regular GET - return server info
-                Map<String, String> serverInfo = new HashMap<>();
-                serverInfo.put("name", SERVER_NAME);
-                serverInfo.put("version", SERVER_VERSION);
-                serverInfo.put("transport", "streamable-http");
-                String info = gson.toJson(serverInfo);
-                exchange.getResponseHeaders().set("Content-Type", "application/json");
-                byte[] responseBytes = info.getBytes(StandardCharsets.UTF_8);
-                exchange.sendResponseHeaders(200, responseBytes.length);
-                try (OutputStream os = exchange.getResponseBody()) {
-                    os.write(responseBytes);
+                try {
+                    response = handleRequest(entry.getAsJsonObject(), session, exchange, readOnlyExecutor);
+                } catch (RuntimeException e) {
+                    logger.error("Error handling batch entry", e);
+                    response = CompletableFuture.completedFuture(
+                        MCPResponse.error(MCPProtocol.getId(entry.getAsJsonObject()),
+                            MCPProtocol.ERROR_INVALID_REQUEST, e.getMessage()));
                 }
             }
+            if (response != null) {
+                responses.add(response);
+            }
         }
 
-        private void handleDelete(HttpExchange exchange) throws IOException {
-            // Close session
-            sessionId = null;
-            exchange.sendResponseHeaders(204, -1);
-            logger.info("MCP session closed");
+        if (responses.isEmpty()) {
+            // Batch of notifications only
+            return CompletableFuture.completedFuture(MCPResponse.of("{}"));
         }
-    }
 
-    private String handleMessage(String message, HttpExchange exchange) {
-        JsonObject request;
-        try {
-            request = MCPProtocol.parseRequest(message);
-        } catch (JsonSyntaxException e) {
-            return MCPProtocol.buildErrorResponse(null, MCPProtocol.ERROR_PARSE, "Parse error: " + e.getMessage());
-        }
+        CompletableFuture<MCPResponse> combined = CompletableFuture.allOf(responses.toArray(new CompletableFuture<?>[0])).thenApply(done -> {
+            List<MCPResponse> results = new ArrayList<>();
+            for (CompletableFuture<MCPResponse> response : responses) {
+                results.add(response.join());
+            }
+            return MCPResponse.batch(results);
+        });
+        // Cancelling the batch (client gone) abandons every entry still queued
+        combined.whenComplete((body, error) -> {
+            if (combined.isCancelled()) {
+                responses.forEach(response -> response.cancel(false));
+            }
+        });
+        return combined;
+    }
 
+    /**
+     * Handle a single JSON-RPC request object. Returns null for notifications, which get no response.
+     * Read-only tool calls are executed on {@code toolExecutor}; game-modifying ones join {@code session}'s queue.
+     */
+    private CompletableFuture<MCPResponse> handleRequest(JsonObject request, Session session, MCPExchange exchange,
+                                                         Executor toolExecutor) {
         String method = MCPProtocol.getMethod(request);
         JsonElement id = MCPProtocol.getId(request);
         JsonObject params = MCPProtocol.getParams(request);
 
         logger.info("MCP method: " + method + ", id: " + id);
 
-        // Handle notifications (no id) - just return empty
+        // Handle notifications (no id) - no response
         if (id == null) {
             if (MCPProtocol.METHOD_INITIALIZED.equals(method)) {
                 logger.info("Client initialized notification received");
+            } else if (MCPProtocol.METHOD_CANCELLED.equals(method)) {
+                handleCancelled(session, params, exchange);
             }
-            // Notifications don't require a response, but we'll send an empty success
-            return "{}";
+            return null;
         }
 
         if (method == null) {
-            return MCPProtocol.buildErrorResponse(id, MCPProtocol.ERROR_INVALID_REQUEST, "Missing method");
+            return CompletableFuture.completedFuture(
+                MCPResponse.error(id, MCPProtocol.ERROR_INVALID_REQUEST, "Missing method"));
         }
 
         switch (method) {
             case MCPProtocol.METHOD_INITIALIZE:
-                return handleInitialize(id, params);
+                return CompletableFuture.completedFuture(handleInitialize(id, params, exchange));
 
             case MCPProtocol.METHOD_INITIALIZED:
                 logger.info("Client initialized notification received");
-                return MCPProtocol.buildResponse(id, new HashMap<>());
+                return CompletableFuture.completedFuture(MCPResponse.result(id, new HashMap<>()));
 
             case MCPProtocol.METHOD_TOOLS_LIST:
-                return handleToolsList(id);
+                return CompletableFuture.completedFuture(handleToolsList(id));
 
             case MCPProtocol.METHOD_TOOLS_CALL:
-                return handleToolsCall(id, params);
+                return handleToolsCall(id, params, session, exchange, toolExecutor);
 
             case MCPProtocol.METHOD_PING:
-                return MCPProtocol.buildResponse(id, new HashMap<>());
+                return CompletableFuture.completedFuture(MCPResponse.result(id, new HashMap<>()));
 
             default:
-                return MCPProtocol.buildErrorResponse(id, MCPProtocol.ERROR_METHOD_NOT_FOUND, "Unknown method: " + method);
+                return CompletableFuture.completedFuture(
+                    MCPResponse.error(id, MCPProtocol.ERROR_METHOD_NOT_FOUND, "Unknown method: " + method));
         }
     }
 
-    private String handleInitialize(JsonElement id, JsonObject params) {
-        // Generate session ID
-        sessionId = UUID.randomUUID().toString();
+    /**
+     * Cancel an earlier request named by a notifications/cancelled notification. A queued tool call is
+     * dropped before it runs, a running execute_actions batch stops at its next action boundary, and a
+     * wait_for_ready returns at once. Unknown or finished ids are ignored.
+     */
+    private void handleCancelled(Session session, JsonObject params, MCPExchange exchange) {
+        if (params == null || !params.has("requestId") || params.get("requestId").isJsonNull()) {
+            logger.warn("Ignoring cancellation without a requestId");
+            return;
+        }
+        JsonElement requestId = params.get("requestId");
+        String reason = params.has("reason") && params.get("reason").isJsonPrimitive()
+            ? params.get("reason").getAsString() : null;
+        String message = reason != null ? "Request cancelled: " + reason : "Request cancelled";
+
+        PendingToolCall pending = session.findInFlightCall(requestId, exchange);
+        if (pending != null && pending.response.complete(
+                MCPResponse.error(pending.id, MCPProtocol.ERROR_CANCELLED, message))) {
+            metrics.recordCancelledToolCall();
+            logger.info("Cancelled tool call " + pending.toolName + " (id " + requestId + ")");
+            return;
+        }
+        for (ReadyWaiter waiter : readyWaiters) {
+            if (waiter.session == session && waiter.id.equals(requestId)
+                    && waiter.response.complete(MCPResponse.error(waiter.id, MCPProtocol.ERROR_CANCELLED, message))) {
+                readyWaiters.remove(waiter);
+                logger.info("Cancelled wait_for_ready (id " + requestId + ")");
+                return;
+            }
+        }
+        logger.info("Nothing to cancel for id " + requestId);
+    }
+
+    private MCPResponse handleInitialize(JsonElement id, JsonObject params, MCPExchange exchange) {
+        // Every initialize starts its own session; other clients' sessions are untouched
+        Session session = new Session(UUID.randomUUID().toString(), maxQueuedToolCalls);
+        registerSession(session);
+        exchange.setResponseHeader("Mcp-Session-Id", session.id);
 
         Map<String, Object> result = MCPProtocol.buildInitializeResult(SERVER_NAME, SERVER_VERSION);
-        logger.info("MCP initialized, session: " + sessionId);
-        return MCPProtocol.buildResponse(id, result);
+        logger.info("MCP initialized, session: " + session.id + " (" + sessions.size() + " active)");
+        return MCPResponse.result(id, result);
     }
 
-    private String handleToolsList(JsonElement id) {
+    private MCPResponse handleToolsList(JsonElement id) {
         Map<String, Object> result = MCPProtocol.buildToolsListResult(toolHandler.getToolDefinitions());
-        return MCPProtocol.buildResponse(id, result);
+        return MCPResponse.result(id, result);
     }
 
-    private String handleToolsCall(JsonElement id, JsonObject params) {
+    private CompletableFuture<MCPResponse> handleToolsCall(JsonElement id, JsonObject params, Session session,
+                                                           MCPExchange exchange, Executor toolExecutor) {
         if (params == null || !params.has("name")) {
-            return MCPProtocol.buildErrorResponse(id, MCPProtocol.ERROR_INVALID_PARAMS, "Missing tool name");
+            return CompletableFuture.completedFuture(
+                MCPResponse.error(id, MCPProtocol.ERROR_INVALID_PARAMS, "Missing tool name"));
         }
 
         String toolName = params.get("name").getAsString();
@@ -317,44 +678,121 @@ public class MCPServer implements Runnable {
 
         logger.info("Tool call: " + toolName + " with args: " + arguments);
 
+        // Long-poll on the readiness signal - neither the game thread nor an HTTP thread is held
+        if ("wait_for_ready".equals(toolName)) {
+            return handleWaitForReady(id, arguments, session);
+        }
+
         // Check if this is a read-only tool that can be executed directly
         if (toolHandler.isReadOnlyTool(toolName)) {
-            logger.info("Executing read-only tool directly on HTTP thread: " + toolName);
+            logger.info("Executing read-only tool directly off the game thread: " + toolName);
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    Map<String, Object> result = toolHandler.executeTool(toolName, arguments);
+                    return MCPResponse.result(id, result);
+                } catch (Exception e) {
+                    logger.error("Error executing read-only tool: " + toolName, e);
+                    return MCPResponse.error(id, MCPProtocol.ERROR_INTERNAL, e.getMessage());
+                }
+            }, toolExecutor);
+        }
+
+        // Optional per-call deadline, replacing the default timeout
+        long timeoutMs = TOOL_CALL_TIMEOUT_MS;
+        if (arguments.has("deadline_ms")) {
             try {
-                Map<String, Object> result = toolHandler.executeTool(toolName, arguments);
-                return MCPProtocol.buildResponse(id, result);
-            } catch (Exception e) {
-                logger.error("Error executing read-only tool: " + toolName, e);
-                return MCPProtocol.buildErrorResponse(id, MCPProtocol.ERROR_INTERNAL, e.getMessage());
+                timeoutMs = Math.max(1, Math.min(arguments.remove("deadline_ms").getAsLong(), MAX_TOOL_CALL_DEADLINE_MS));
+            } catch (RuntimeException e) {
+                return CompletableFuture.completedFuture(MCPResponse.error(id, MCPProtocol.ERROR_INVALID_PARAMS,
+                    "deadline_ms must be an integer"));
             }
         }
 
-        // Queue the tool call for execution on the game thread
-        PendingToolCall pending = new PendingToolCall(id, toolName, arguments);
-        pendingToolCalls.add(pending);
-        logger.info("Tool call queued for game thread, pending count: " + pendingToolCalls.size());
+        // Queue the tool call for execution on the game thread, in this session's own queue
+        PendingToolCall pending = new PendingToolCall(id, session.callKey(id, exchange), toolName, arguments);
+        if (session.inFlightCalls.putIfAbsent(pending.key, pending) != null) {
+            return CompletableFuture.completedFuture(MCPResponse.error(id, MCPProtocol.ERROR_INVALID_REQUEST,
+                "A tool call with id " + id + " is already in progress"));
+        }
+        if (!session.pendingToolCalls.offer(pending)) {
+            session.inFlightCalls.remove(pending.key, pending);
+            metrics.recordRejectedToolCall();
+            logger.warn("Rejecting " + toolName + ": tool call queue is full");
+            return CompletableFuture.completedFuture(MCPResponse.error(id, MCPProtocol.ERROR_QUEUE_FULL,
+                "Tool call queue is full (" + session.pendingToolCalls.size() + " pending) - retry after earlier calls complete"));
+        }
+        logger.info("Tool call queued for game thread, pending count: " + session.pendingToolCalls.size());
+
+        // Complete with this call's own result, a timeout or a cancellation - no thread waits in between
+        CompletableFuture<MCPResponse> response = pending.response;
+        long deadlineMs = timeoutMs;
+        ScheduledFuture<?> timeout = timeoutScheduler.schedule(() -> {
+            if (response.complete(MCPResponse.error(id, MCPProtocol.ERROR_TIMEOUT,
+                    "Tool execution timeout - ensure the game is running and not paused"))) {
+                logger.error("Tool execution timeout - game thread did not process " + toolName + " in " + deadlineMs + " ms");
+            }
+        }, timeoutMs, TimeUnit.MILLISECONDS);
+
+        pending.result.whenComplete((result, error) -> {
+            timeout.cancel(false);
+            if (error instanceof CancellationException) {
+                return; // Abandoned; the response is already complete
+            }
+            if (error != null) {
+                logger.error("Error executing tool: " + toolName, error);
+                response.complete(MCPResponse.error(id, MCPProtocol.ERROR_INTERNAL, error.getMessage()));
+            } else {
+                logger.info("Tool call completed: " + toolName);
+                response.complete(MCPResponse.result(id, result));
+            }
+        });
+        // Once nobody is waiting (timeout, cancellation, client gone), the call must not run against a later game state
+        response.whenComplete((body, error) -> {
+            session.inFlightCalls.remove(pending.key, pending);
+            if (pending.abandon()) {
+                session.pendingToolCalls.remove(pending);
+                metrics.recordAbandonedToolCall();
+                logger.warn("Dropped abandoned tool call " + toolName + " (id " + id + ")");
+            }
+        });
+        return response;
+    }
 
-        // Wait for result (with timeout)
+    private CompletableFuture<MCPResponse> handleWaitForReady(JsonElement id, JsonObject arguments, Session session) {
+        long timeoutMs = DEFAULT_WAIT_FOR_READY_MS;
+        long afterVersion = -1;
         try {
-            Map<String, Object> result = toolCallResults.poll(30, TimeUnit.SECONDS);
-            if (result == null) {
-                logger.error("Tool execution timeout - game thread did not process in 30 seconds");
-                return MCPProtocol.buildErrorResponse(id, MCPProtocol.ERROR_INTERNAL,
-                    "Tool execution timeout - ensure the game is running and not paused");
+            if (arguments.has("timeout_ms") && !arguments.get("timeout_ms").isJsonNull()) {
+                timeoutMs = Math.max(0, Math.min(arguments.get("timeout_ms").getAsLong(), MAX_WAIT_FOR_READY_TIMEOUT_MS));
+            }
+            if (arguments.has("after_version") && !arguments.get("after_version").isJsonNull()) {
+                afterVersion = arguments.get("after_version").getAsLong();
             }
-            logger.info("Tool call completed: " + toolName);
-            return MCPProtocol.buildResponse(id, result);
-        } catch (InterruptedException e) {
-            return MCPProtocol.buildErrorResponse(id, MCPProtocol.ERROR_INTERNAL, "Tool execution interrupted");
+        } catch (RuntimeException e) {
+            return CompletableFuture.completedFuture(MCPResponse.error(id, MCPProtocol.ERROR_INVALID_PARAMS,
+                "timeout_ms and after_version must be integers"));
+        }
+
+        ReadyWaiter waiter = new ReadyWaiter(id, afterVersion, session);
+        readyWaiters.add(waiter);
+        // Re-check after registering so a state change between the check and the add is not missed
+        if (waiter.isSatisfied()) {
+            waiter.resolve(false);
+        } else {
+            ScheduledFuture<?> timeout = timeoutScheduler.schedule(() -> waiter.resolve(true), timeoutMs, TimeUnit.MILLISECONDS);
+            waiter.response.whenComplete((body, error) -> timeout.cancel(false));
         }
+        waiter.response.whenComplete((body, error) -> readyWaiters.remove(waiter));
+        return waiter.response;
     }
 
     /**
      * Check if we should wait for ready_for_command before executing.
+     * Ready means GameStateListener has presented a new state and the engine has no actions left to resolve.
      * Returns true if we should wait (i.e., skip this frame), false if ready to execute.
      */
     private boolean shouldWaitForReady() {
-        if (mcpthespire.GameStateListener.isWaitingForCommand()) {
+        if (mcpthespire.GameStateListener.isWaitingForCommand() && mcpthespire.GameStateListener.isEngineIdle()) {
             // Ready to execute, reset wait timer
             waitStartTime = 0;
             return false;
@@ -379,100 +817,180 @@ public class MCPServer implements Runnable {
     }
 
     /**
-     * Process pending tool calls on the game thread.
-     * This should be called from the game's update loop.
+     * Process pending tool calls on the game thread. Called from each BaseMod hook in {@link FramePhase};
+     * drains as many ready calls as fit in the remaining frame budget.
      */
-    public void processPendingToolCalls() {
-        // First, continue any pending batch execution
-        if (pendingBatch != null) {
-            processBatchAction();
+    public void processPendingToolCalls(FramePhase phase) {
+        // The game may have changed screens since the previous hook in this frame
+        mcpthespire.ChoiceScreenUtils.invalidateFrameMemo();
+        if (phase.ordinal() <= lastPhase.ordinal()) {
+            // First hook of a new frame
+            frameBudgetRemainingNanos = frameBudgetNanos;
+        }
+        lastPhase = phase;
+
+        // Snapshots come out of the same budget as tool calls; once it is spent they wait for the next hook
+        if (frameBudgetRemainingNanos > 0) {
+            long start = System.nanoTime();
+            if (stateChangePending) {
+                stateChangePending = false;
+                publishStateChange();
+            } else {
+                // A read-only tool is waiting for a snapshot (first read, or map section wanted)
+                toolHandler.refreshSnapshotIfRequested();
+            }
+            frameBudgetRemainingNanos -= System.nanoTime() - start;
+        }
+
+        if (frameBudgetRemainingNanos <= 0 || !hasPendingToolCalls()) {
             return;
         }
 
-        // Then, check for new tool calls
-        PendingToolCall pending = pendingToolCalls.peek(); // peek first, don't remove yet
-        if (pending != null) {
-            // For game-modifying tools, wait for ready_for_command
-            if (!toolHandler.isReadOnlyTool(pending.toolName)) {
-                if (shouldWaitForReady()) {
-                    return; // Not ready, try again next frame
-                }
+        long start = System.nanoTime();
+        long deadline = start + frameBudgetRemainingNanos;
+        while (processNextToolCall()) {
+            if (System.nanoTime() >= deadline) {
+                break;
             }
+        }
+        frameBudgetRemainingNanos = Math.max(0, deadline - System.nanoTime());
+    }
 
-            // Now remove from queue
-            pendingToolCalls.poll();
-            logger.info("Game thread processing tool: " + pending.toolName);
+    /**
+     * Run the next step of game-thread work. Returns false if nothing could run right now
+     * (queue empty, or waiting for the game to become ready).
+     */
+    private boolean processNextToolCall() {
+        // First, continue any pending batch execution
+        if (pendingBatch != null) {
+            return processBatchAction();
+        }
 
-            // Special handling for execute_actions - use async batch execution
-            if ("execute_actions".equals(pending.toolName)) {
-                startBatchExecution(pending.arguments);
-                return;
+        // Then, take the next tool call round-robin across sessions so one busy client can't starve the others
+        Session[] order = sessionOrder;
+        int index = 0;
+        PendingToolCall pending = null;
+        for (int i = 0; i < order.length && pending == null; i++) {
+            index = (nextSessionIndex + i) % order.length;
+            pending = order[index].pendingToolCalls.peek(); // peek first, don't remove yet
+            if (pending != null && pending.result.isDone()) {
+                // Abandoned while queued; discard without running it
+                order[index].pendingToolCalls.remove(pending);
+                return true;
             }
+        }
+        if (pending == null) {
+            return false;
+        }
+        Session session = order[index];
 
-            try {
-                Map<String, Object> result = toolHandler.executeTool(pending.toolName, pending.arguments);
-                toolCallResults.add(result);
-                logger.info("Tool result added to queue");
-            } catch (Exception e) {
-                logger.error("Error executing tool: " + pending.toolName, e);
-                toolCallResults.add(MCPProtocol.buildToolCallResult("Error: " + e.getMessage(), true));
+        // For game-modifying tools, wait for ready_for_command
+        if (!toolHandler.isReadOnlyTool(pending.toolName)) {
+            if (shouldWaitForReady()) {
+                return false; // Not ready, try again next hook
             }
         }
+
+        // Now remove from queue and claim it; it may have been abandoned since the peek
+        if (!session.pendingToolCalls.remove(pending) || !pending.claim()) {
+            return true;
+        }
+        nextSessionIndex = (index + 1) % order.length;
+        if (pending.response.isDone()) {
+            // Timed out or cancelled between the peek and the claim; abandon() found it claimed, so drop it here
+            pending.drop();
+            metrics.recordAbandonedToolCall();
+            logger.warn("Dropped abandoned tool call " + pending.toolName + " (id " + pending.id + ")");
+            return true;
+        }
+        logger.info("Game thread processing tool: " + pending.toolName + " (session " + session.id + ")");
+
+        // Special handling for execute_actions - use async batch execution
+        if ("execute_actions".equals(pending.toolName)) {
+            startBatchExecution(pending);
+            return true;
+        }
+
+        try {
+            Map<String, Object> result = toolHandler.executeTool(pending.toolName, pending.arguments);
+            pending.complete(result);
+            logger.info("Tool result delivered for id " + pending.id);
+        } catch (Exception e) {
+            logger.error("Error executing tool: " + pending.toolName, e);
+            pending.complete(MCPProtocol.buildToolCallResult("Error: " + e.getMessage(), true));
+        }
+        return true;
     }
 
     /**
      * Start a new batch execution.
      */
-    private void startBatchExecution(JsonObject params) {
+    private void startBatchExecution(PendingToolCall call) {
+        JsonObject params = call.arguments;
         if (!params.has("actions") || !params.get("actions").isJsonArray()) {
-            toolCallResults.add(MCPProtocol.buildToolCallResult("Error: 'actions' array is required", true));
+            call.complete(MCPProtocol.buildToolCallResult("Error: 'actions' array is required", true));
             return;
         }
 
         com.google.gson.JsonArray actions = params.getAsJsonArray("actions");
         if (actions.size() == 0) {
-            toolCallResults.add(MCPProtocol.buildToolCallResult("Error: 'actions' array is empty", true));
+            call.complete(MCPProtocol.buildToolCallResult("Error: 'actions' array is empty", true));
             return;
         }
 
         logger.info("Starting batch execution with " + actions.size() + " actions");
-        pendingBatch = new PendingBatchExecution(actions);
+        pendingBatch = new PendingBatchExecution(call, actions);
 
         // Execute first action immediately
         processBatchAction();
     }
 
     /**
-     * Process one action from the pending batch.
-     * Called once per game frame, with rate limiting to ensure game state updates between actions.
+     * Process one action from the pending batch, with rate limiting to ensure game state updates between actions.
+     * Returns false if the batch is waiting and no action ran.
      */
-    private void processBatchAction() {
-        if (pendingBatch == null) return;
+    private boolean processBatchAction() {
+        if (pendingBatch == null) return false;
+
+        // The caller stopped waiting or cancelled; don't replay the rest of its actions into a later state
+        if (pendingBatch.call.response.isDone()) {
+            logger.info("Dropping abandoned batch after " + pendingBatch.successCount + "/" + pendingBatch.actions.size() + " actions");
+            pendingBatch.call.drop();
+            pendingBatch = null;
+            return true;
+        }
+
+        // A wait action is in progress; the game keeps updating until its deadline
+        if (pendingBatch.resumeAt > 0) {
+            if (System.currentTimeMillis() < pendingBatch.resumeAt) {
+                return false;
+            }
+            pendingBatch.resumeAt = 0;
+        }
 
         // Check if we should stop
         if (!pendingBatch.hasMoreActions()) {
             finishBatchExecution();
-            return;
+            return true;
         }
 
         // Wait for ready_for_command (except for the first action which was already checked)
         if (pendingBatch.currentIndex > 0 && shouldWaitForReady()) {
-            return; // Not ready, try again next frame
+            return false; // Not ready, try again next hook
         }
 
-        // Rate limit: ensure minimum time between batch actions
-        // This gives the game time to process card queue, animations, etc.
+        // Optional floor between batch actions; readiness above already covers the card queue and actions
         long now = System.currentTimeMillis();
-        if (pendingBatch.currentIndex > 0 && (now - lastBatchActionTime) < MIN_BATCH_ACTION_INTERVAL_MS) {
+        if (pendingBatch.currentIndex > 0 && batchMinIntervalMs > 0 && (now - lastBatchActionTime) < batchMinIntervalMs) {
             // Not enough time has passed since last action, skip this call
-            return;
+            return false;
         }
 
         JsonObject action = pendingBatch.getCurrentAction();
         if (!action.has("action")) {
             pendingBatch.markError(null, "Missing 'action' field");
             finishBatchExecution();
-            return;
+            return true;
         }
 
         String actionType = action.get("action").getAsString();
@@ -480,9 +998,9 @@ public class MCPServer implements Runnable {
 
         try {
             if ("wait".equals(actionType)) {
-                // Wait action doesn't need frame delay, just a sleep
+                // Defer the rest of the batch to a later frame instead of sleeping on the game thread
                 int waitMs = action.has("ms") ? action.get("ms").getAsInt() : 100;
-                Thread.sleep(Math.min(waitMs, 500));
+                pendingBatch.resumeAt = System.currentTimeMillis() + Math.max(0, Math.min(waitMs, 500));
             } else {
                 // For play_card with card_index, convert to card_uuid for stable resolution
                 JsonObject processedAction = action;
@@ -561,15 +1079,16 @@ public class MCPServer implements Runnable {
             // Check if screen changed (stop execution if it did)
             pendingBatch.checkScreenChange();
 
-            // If no more actions, finish now
-            if (!pendingBatch.hasMoreActions()) {
+            // If no more actions, finish now (a trailing wait finishes once its deadline passes)
+            if (!pendingBatch.hasMoreActions() && pendingBatch.resumeAt == 0) {
                 finishBatchExecution();
             }
-            // Otherwise, next action will be processed in next frame
+            // Otherwise, the next action runs once the game is ready again
         } catch (Exception e) {
             pendingBatch.markError(actionType, e.getMessage());
             finishBatchExecution();
         }
+        return true;
     }
 
     /**
@@ -592,7 +1111,7 @@ public class MCPServer implements Runnable {
         }
 
         logger.info("Batch execution finished: " + pendingBatch.successCount + "/" + total);
-        toolCallResults.add(MCPProtocol.buildToolCallResult(message, pendingBatch.errorMessage != null));
+        pendingBatch.call.complete(MCPProtocol.buildToolCallResult(message, pendingBatch.errorMessage != null));
         pendingBatch = null;
     }
 
@@ -636,11 +1155,76 @@ public class MCPServer implements Runnable {
         return result;
     }
 
+    /**
+     * Record that the game presented a new state. Called on the game thread whenever GameStateListener
+     * detects a change; the snapshot and notifications follow at the next hook with frame budget left.
+     */
+    public void onGameStateChanged() {
+        stateChangePending = true;
+    }
+
+    /**
+     * Publish a snapshot of the new state, then wake wait_for_ready calls and notify SSE listeners. Game thread only.
+     */
+    private void publishStateChange() {
+        // Readers are served from this snapshot until the next change
+        toolHandler.publishSnapshot();
+
+        for (ReadyWaiter waiter : readyWaiters) {
+            if (waiter.isSatisfied()) {
+                waiter.resolve(false);
+            }
+        }
+
+        Session[] order = sessionOrder;
+        boolean listening = false;
+        for (Session session : order) {
+            session.eventStreams.removeIf(stream -> !stream.isOpen());
+            listening |= !session.eventStreams.isEmpty();
+        }
+        if (!listening) {
+            return;
+        }
+
+        Map<String, Object> params = new HashMap<>();
+        params.put("state_version", mcpthespire.GameStateListener.getStateVersion());
+        params.put("ready_for_command", mcpthespire.GameStateListener.isWaitingForCommand());
+        boolean inGame = mcpthespire.CommandExecutor.isInDungeon();
+        params.put("in_game", inGame);
+        if (inGame) {
+            params.put("screen_type", mcpthespire.ChoiceScreenUtils.getCurrentChoiceType().name());
+        }
+        GameStateSnapshot snapshot = GameStateSnapshot.current();
+        if (notifyIncludeState && snapshot != null) {
+            Map<String, Object> state = new HashMap<>(snapshot.screenState);
+            state.put("ready_for_command", snapshot.isReadyForCommand());
+            params.put("state", state);
+        }
+
+        String frame = "event: message\ndata: "
+            + MCPProtocol.buildNotification(MCPProtocol.NOTIFICATION_STATE_CHANGED, params) + "\n\n";
+        for (Session session : order) {
+            for (SseStream stream : session.eventStreams) {
+                if (!stream.send(frame)) {
+                    session.eventStreams.remove(stream);
+                }
+            }
+        }
+    }
+
     /**
      * Check if there are pending tool calls or batch actions to process.
      */
     public boolean hasPendingToolCalls() {
-        return !pendingToolCalls.isEmpty() || pendingBatch != null;
+        if (pendingBatch != null) {
+            return true;
+        }
+        for (Session session : sessionOrder) {
+            if (!session.pendingToolCalls.isEmpty()) {
+                return true;
+            }
+        }
+        return false;
     }
 
     public String getHost() {
@@ -653,30 +1237,224 @@ public class MCPServer implements Runnable {
 
     public void stop() {
         running = false;
-        if (httpServer != null) {
-            httpServer.stop(0);
+        for (Session session : sessionOrder) {
+            session.closeEventStreams();
+        }
+        if (httpTransport != null) {
+            httpTransport.stop();
         }
+        timeoutScheduler.shutdownNow();
+        readOnlyExecutor.shutdownNow();
+    }
+
+    /**
+     * One MCP client session: its own tool call queue, in-flight calls and SSE streams.
+     * The default session (null id) serves clients that never send Mcp-Session-Id.
+     */
+    private static class Session {
+        final String id;
+        // Bounded queue for this session's tool calls waiting for the game thread
+        final BlockingQueue<PendingToolCall> pendingToolCalls;
+        // Tool calls queued or running on the game thread, keyed by callKey()
+        final Map<String, PendingToolCall> inFlightCalls = new ConcurrentHashMap<>();
+        // Open SSE streams that receive state-change notifications
+        final Set<SseStream> eventStreams = ConcurrentHashMap.newKeySet();
+        volatile long lastActivity = System.currentTimeMillis();
+
+        Session(String id, int maxQueuedToolCalls) {
+            this.id = id;
+            this.pendingToolCalls = new LinkedBlockingQueue<>(maxQueuedToolCalls);
+        }
+
+        void touch() {
+            lastActivity = System.currentTimeMillis();
+        }
+
+        /**
+         * Key for a call in {@link #inFlightCalls}: the JSON-RPC id, scoped to the connection for the
+         * default session so unrelated session-less clients can reuse the same ids.
+         */
+        String callKey(JsonElement requestId, MCPExchange exchange) {
+            return id != null ? requestId.toString() : exchange.getRemoteAddress() + " " + requestId;
+        }
+
+        /**
+         * The in-flight call a cancellation refers to. A session-less client may cancel from another
+         * connection, so the default session falls back to the only call with that id, if there is one.
+         */
+        PendingToolCall findInFlightCall(JsonElement requestId, MCPExchange exchange) {
+            PendingToolCall pending = inFlightCalls.get(callKey(requestId, exchange));
+            if (pending != null || id != null) {
+                return pending;
+            }
+            for (PendingToolCall call : inFlightCalls.values()) {
+                if (call.id.equals(requestId)) {
+                    if (pending != null) {
+                        return null; // Ambiguous between connections
+                    }
+                    pending = call;
+                }
+            }
+            return pending;
+        }
+
+        void closeEventStreams() {
+            for (SseStream stream : eventStreams) {
+                stream.close();
+            }
+            eventStreams.clear();
+        }
+    }
+
+    private enum CallState {
+        QUEUED,     // waiting in a session queue
+        RUNNING,    // claimed by the game thread
+        DONE,       // result produced
+        ABANDONED   // nobody is waiting for the result; never runs (or stops running)
     }
 
     /**
      * Represents a pending tool call waiting to be executed on the game thread.
+     * Each call carries its own completion handle, so results are always delivered
+     * to the request that issued them regardless of how many calls are in flight.
      */
     private static class PendingToolCall {
         final JsonElement id;
+        final String key;
         final String toolName;
         final JsonObject arguments;
+        final CompletableFuture<Map<String, Object>> result = new CompletableFuture<>();
+        // The JSON-RPC response; completing it early (timeout, cancellation) abandons the call
+        final CompletableFuture<MCPResponse> response = new CompletableFuture<>();
+        private final AtomicReference<CallState> state = new AtomicReference<>(CallState.QUEUED);
 
-        PendingToolCall(JsonElement id, String toolName, JsonObject arguments) {
+        PendingToolCall(JsonElement id, String key, String toolName, JsonObject arguments) {
             this.id = id;
+            this.key = key;
             this.toolName = toolName;
             this.arguments = arguments;
         }
+
+        /**
+         * Claim the call for execution on the game thread. Returns false if it was abandoned first.
+         */
+        boolean claim() {
+            return state.compareAndSet(CallState.QUEUED, CallState.RUNNING);
+        }
+
+        void complete(Map<String, Object> toolResult) {
+            state.set(CallState.DONE);
+            result.complete(toolResult);
+        }
+
+        /**
+         * Mark a queued call as abandoned. Returns false once the game thread has claimed it; a running
+         * call is stopped by the game thread itself (see {@link #drop()}).
+         */
+        boolean abandon() {
+            if (!state.compareAndSet(CallState.QUEUED, CallState.ABANDONED)) {
+                return false;
+            }
+            result.cancel(false);
+            return true;
+        }
+
+        /**
+         * Abandon a claimed call whose caller is no longer waiting. Game thread only.
+         */
+        void drop() {
+            state.set(CallState.ABANDONED);
+            result.cancel(false);
+        }
+    }
+
+    /**
+     * Thrown by {@link BoundedInputStream} once a request body goes past the configured limit.
+     */
+    private static class RequestTooLargeException extends IOException {
+        RequestTooLargeException(long limit) {
+            super("Request body exceeds " + limit + " bytes");
+        }
+    }
+
+    /**
+     * Request body stream that fails with {@link RequestTooLargeException} after {@code limit} bytes,
+     * so a client cannot make the parser buffer an unbounded document.
+     */
+    private static class BoundedInputStream extends FilterInputStream {
+        private final long limit;
+        private long count;
+
+        BoundedInputStream(InputStream in, long limit) {
+            super(in);
+            this.limit = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n > 0) {
+                count(n);
+            }
+            return n;
+        }
+
+        private void count(int n) throws RequestTooLargeException {
+            count += n;
+            if (count > limit) {
+                throw new RequestTooLargeException(limit);
+            }
+        }
+    }
+
+    /**
+     * A parked wait_for_ready call. Resolved by the game thread on a state change, or by the timeout scheduler.
+     */
+    private static class ReadyWaiter {
+        final JsonElement id;
+        final long afterVersion;
+        final Session session;
+        final CompletableFuture<MCPResponse> response = new CompletableFuture<>();
+
+        ReadyWaiter(JsonElement id, long afterVersion, Session session) {
+            this.id = id;
+            this.afterVersion = afterVersion;
+            this.session = session;
+        }
+
+        boolean isSatisfied() {
+            if (afterVersion >= 0) {
+                return mcpthespire.GameStateListener.getStateVersion() > afterVersion;
+            }
+            return mcpthespire.GameStateListener.isWaitingForCommand();
+        }
+
+        void resolve(boolean timedOut) {
+            if (response.isDone()) {
+                return;
+            }
+            Map<String, Object> data = new HashMap<>();
+            data.put("ready_for_command", mcpthespire.GameStateListener.isWaitingForCommand());
+            data.put("state_version", mcpthespire.GameStateListener.getStateVersion());
+            data.put("timed_out", timedOut);
+            response.complete(MCPResponse.result(id, MCPProtocol.buildToolCallResultJson(data)));
+        }
     }
 
     /**
      * Represents a pending batch execution that spans multiple frames.
      */
     private static class PendingBatchExecution {
+        final PendingToolCall call;
         final com.google.gson.JsonArray actions;
         int currentIndex;
         int successCount;
@@ -690,8 +1468,11 @@ public class MCPServer implements Runnable {
         java.util.List<java.util.UUID> initialHandUuids;
         // Initial choice list for stable choice_index resolution
         java.util.List<String> initialChoiceList;
+        // Wall-clock time a wait action resumes the batch at, or 0 when not waiting
+        long resumeAt;
 
-        PendingBatchExecution(com.google.gson.JsonArray actions) {
+        PendingBatchExecution(PendingToolCall call, com.google.gson.JsonArray actions) {
+            this.call = call;
             this.actions = actions;
             this.currentIndex = 0;
             this.successCount = 0;
@@ -2,21 +2,21 @@ package mcpthespire.mcp;
 
 import com.google.gson.Gson;
 import com.google.gson.JsonObject;
+import com.megacrit.cardcrawl.cards.AbstractCard;
 import com.megacrit.cardcrawl.core.CardCrawlGame;
 import com.megacrit.cardcrawl.dungeons.AbstractDungeon;
 import com.megacrit.cardcrawl.rooms.AbstractRoom;
 import mcpthespire.ChoiceScreenUtils;
 import mcpthespire.CommandExecutor;
+import mcpthespire.GameCatalog;
 import mcpthespire.GameStateConverter;
 import mcpthespire.GameStateListener;
 import mcpthespire.InvalidCommandException;
 import mcpthespire.MCPTheSpire;
+import mcpthespire.MapGraph;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import com.megacrit.cardcrawl.cards.AbstractCard;
-import com.megacrit.cardcrawl.dungeons.AbstractDungeon;
-
 import java.util.*;
 
 /**
@@ -32,12 +32,27 @@ public class MCPToolHandler {
         "get_game_state",
         "get_screen_state",
         "get_available_commands",
+        "get_state_delta",
         "get_card_info",
-        "get_relic_info"
+        "get_relic_info",
+        "get_catalog",
+        "plan_route"
     ));
 
+    // How long a read-only tool waits for the game thread to publish a snapshot it needs
+    private static final long SNAPSHOT_REFRESH_WAIT_MS = 250;
+
+    // plan_route routes returned
+    private static final int DEFAULT_ROUTE_COUNT = 3;
+    private static final int MAX_ROUTE_COUNT = 20;
+
+    // get_catalog entries per page
+    private static final int DEFAULT_CATALOG_PAGE_SIZE = 200;
+    private static final int MAX_CATALOG_PAGE_SIZE = 1000;
+
     /**
      * Check if a tool is read-only and safe to execute on any thread.
+     * State queries are served from {@link GameStateSnapshot}, never from live game objects.
      */
     public boolean isReadOnlyTool(String toolName) {
         return READ_ONLY_TOOLS.contains(toolName);
@@ -49,6 +64,10 @@ public class MCPToolHandler {
     public List<Map<String, Object>> getToolDefinitions() {
         List<Map<String, Object>> tools = new ArrayList<>();
 
+        // Conditional state reads: every state response carries state_version
+        Map<String, Object> ifVersionProp = MCPProtocol.createProperty("integer",
+            "state_version from your last read. If the state has not changed since, only {unchanged, state_version, ready_for_command} is returned");
+
         // get_game_state - Get game state with optional filtering
         Map<String, Object> getGameStateProps = new HashMap<>();
         Map<String, Object> includeProp = new HashMap<>();
@@ -56,6 +75,7 @@ public class MCPToolHandler {
         includeProp.put("items", MCPProtocol.createProperty("string", "Section name"));
         includeProp.put("description", "Sections: player, deck, relics, potions, combat, screen (default=all). 'map' must be explicitly requested.");
         getGameStateProps.put("include", includeProp);
+        getGameStateProps.put("if_version", ifVersionProp);
         tools.add(MCPProtocol.createToolDefinition(
             "get_game_state",
             "Get game state. Sections: player, deck, relics, potions, combat, screen (default=all). 'map' excluded by default (large/static) - request explicitly when needed.",
@@ -63,17 +83,32 @@ public class MCPToolHandler {
         ));
 
         // get_screen_state - Recommended for most queries
+        Map<String, Object> getScreenStateProps = new HashMap<>();
+        getScreenStateProps.put("if_version", ifVersionProp);
         tools.add(MCPProtocol.createToolDefinition(
             "get_screen_state",
             "RECOMMENDED: Get current screen state (screen_type, choices, hand, monsters, buttons). Use this instead of get_game_state for routine checks.",
-            MCPProtocol.createInputSchema(new HashMap<>(), null)
+            MCPProtocol.createInputSchema(getScreenStateProps, null)
         ));
 
         // get_available_commands - Quick check what's available
+        Map<String, Object> getAvailableCommandsProps = new HashMap<>();
+        getAvailableCommandsProps.put("if_version", ifVersionProp);
         tools.add(MCPProtocol.createToolDefinition(
             "get_available_commands",
             "Get available tools for current screen with descriptions. Returns screen_type and available_tools list.",
-            MCPProtocol.createInputSchema(new HashMap<>(), null)
+            MCPProtocol.createInputSchema(getAvailableCommandsProps, null)
+        ));
+
+        // get_state_delta - JSON Patch from an earlier state_version to the current state
+        Map<String, Object> stateDeltaProps = new HashMap<>();
+        stateDeltaProps.put("since_version", MCPProtocol.createProperty("integer",
+            "state_version of the last state you hold (from get_game_state or a previous get_state_delta)"));
+        tools.add(MCPProtocol.createToolDefinition(
+            "get_state_delta",
+            "Get what changed since since_version as an RFC 6902 JSON Patch against the default get_game_state result ({in_game, game_state}). " +
+            "Much smaller than get_game_state in long combats. If since_version is too old or omitted, returns the full state with full=true.",
+            MCPProtocol.createInputSchema(stateDeltaProps, null)
         ));
 
         // get_card_info - Get detailed card information
@@ -102,6 +137,54 @@ public class MCPToolHandler {
             MCPProtocol.createInputSchema(relicInfoProps, Arrays.asList("relic_ids"))
         ));
 
+        // get_catalog - Whole card/relic/potion/monster dictionary, for clients that cache it
+        Map<String, Object> catalogProps = new HashMap<>();
+        catalogProps.put("if_hash", MCPProtocol.createProperty("string",
+            "hash of the catalog you already hold; if it is still current, returns not_modified instead of entries"));
+        catalogProps.put("cursor", MCPProtocol.createProperty("integer",
+            "Index of the first entry to return (default 0). Use next_cursor from the previous page"));
+        catalogProps.put("limit", MCPProtocol.createProperty("integer",
+            "Entries per page (default " + DEFAULT_CATALOG_PAGE_SIZE + ", max " + MAX_CATALOG_PAGE_SIZE + ")"));
+        tools.add(MCPProtocol.createToolDefinition(
+            "get_catalog",
+            "Get every card, relic, potion and monster (the same info as get_card_info/get_relic_info) in pages, with a content hash. " +
+            "Load it once and cache it by hash instead of querying ids one at a time. If the hash changes between pages, start again from cursor 0.",
+            MCPProtocol.createInputSchema(catalogProps, null)
+        ));
+
+        // plan_route - Best map routes from the current node under a weighting of room types
+        Map<String, Object> planRouteProps = new HashMap<>();
+        Map<String, Object> weightsProp = new HashMap<>();
+        weightsProp.put("type", "object");
+        Map<String, Object> weightProps = new LinkedHashMap<>();
+        for (String name : RoutePlanner.WEIGHT_NAMES) {
+            weightProps.put(name, MCPProtocol.createProperty("number", "Value of each " + name.replace('_', ' ')
+                + " node (default " + RoutePlanner.defaultWeights().get(name) + ")"));
+        }
+        weightsProp.put("properties", weightProps);
+        weightsProp.put("description", "Score per room type; negative values avoid it. emerald_key adds to the burning elite's elite weight");
+        planRouteProps.put("weights", weightsProp);
+        planRouteProps.put("top_k", MCPProtocol.createProperty("integer",
+            "Number of routes to return (default " + DEFAULT_ROUTE_COUNT + ", max " + MAX_ROUTE_COUNT + ")"));
+        tools.add(MCPProtocol.createToolDefinition(
+            "plan_route",
+            "Find the best routes from the current map position to the boss, scored by summing weights of the rooms on each route. " +
+            "Returns the top_k routes with their nodes and room counts, plus the total number of routes. Follows map edges only (no Winged Boots jumps).",
+            MCPProtocol.createInputSchema(planRouteProps, null)
+        ));
+
+        // wait_for_ready - Long-poll instead of polling get_screen_state
+        Map<String, Object> waitForReadyProps = new HashMap<>();
+        waitForReadyProps.put("timeout_ms", MCPProtocol.createProperty("integer",
+            "Maximum time to wait in milliseconds (default 10000, max 60000)"));
+        waitForReadyProps.put("after_version", MCPProtocol.createProperty("integer",
+            "Wait for a state newer than this state_version (from a previous wait_for_ready or state notification)"));
+        tools.add(MCPProtocol.createToolDefinition(
+            "wait_for_ready",
+            "Wait until the game is ready for a command, or until the state moves past after_version. Returns ready_for_command, state_version and timed_out. Use after an action instead of polling get_screen_state.",
+            MCPProtocol.createInputSchema(waitForReadyProps, null)
+        ));
+
         // execute_actions - PREFERRED for multiple actions
         Map<String, Object> executeActionsProps = new HashMap<>();
         Map<String, Object> actionsArrayProp = new HashMap<>();
@@ -257,10 +340,13 @@ public class MCPToolHandler {
                     return executeGetGameState(arguments);
 
                 case "get_screen_state":
-                    return executeGetScreenState();
+                    return executeGetScreenState(arguments);
 
                 case "get_available_commands":
-                    return executeGetAvailableCommands();
+                    return executeGetAvailableCommands(arguments);
+
+                case "get_state_delta":
+                    return executeGetStateDelta(arguments);
 
                 case "get_card_info":
                     return executeGetCardInfo(arguments);
@@ -268,6 +354,12 @@ public class MCPToolHandler {
                 case "get_relic_info":
                     return executeGetRelicInfo(arguments);
 
+                case "get_catalog":
+                    return executeGetCatalog(arguments);
+
+                case "plan_route":
+                    return executePlanRoute(arguments);
+
                 case "play_card":
                     return executePlayCard(arguments);
 
@@ -322,23 +414,187 @@ public class MCPToolHandler {
         }
     }
 
-    private Map<String, Object> executeGetGameState(JsonObject args) {
+    /**
+     * Capture the current game state into a new {@link GameStateSnapshot}. Game thread only;
+     * called whenever GameStateListener detects a change, and when a reader asks for a refresh.
+     */
+    public void publishSnapshot() {
+        boolean withMap = GameStateSnapshot.takeMapWanted();
+        try {
+            long version = GameStateListener.getStateVersion();
+            boolean ready = GameStateListener.isWaitingForCommand();
+            boolean inGame = CommandExecutor.isInDungeon();
+
+            HashMap<String, Object> screenState = GameStateConverter.getScreenOnlyState();
+            screenState.remove("ready_for_command");
+            Map<String, Object> gameStateBase = null;
+            Map<String, Map<String, Object>> sections = new LinkedHashMap<>();
+            if (inGame) {
+                gameStateBase = GameStateConverter.getGameStateBase();
+                for (String section : GameStateConverter.GAME_STATE_SECTIONS) {
+                    if (!"map".equals(section) || withMap) {
+                        sections.put(section, GameStateConverter.getGameStateSection(section));
+                    }
+                }
+            }
+            Map<String, Object> availableCommands = buildAvailableCommands();
+            availableCommands.remove("ready_for_command");
+
+            GameStateSnapshot.publish(new GameStateSnapshot(version, ready, inGame, screenState,
+                gameStateBase, sections, availableCommands, inGame && withMap ? MapGraph.current() : null));
+        } catch (Exception e) {
+            // Keep serving the previous snapshot, and try the map again next time
+            if (withMap) {
+                GameStateSnapshot.setMapWanted();
+            }
+            logger.error("Error capturing game state snapshot", e);
+        }
+    }
+
+    /**
+     * Publish a snapshot if a reader asked for one since the last publish. Game thread only.
+     */
+    public void refreshSnapshotIfRequested() {
+        if (GameStateSnapshot.isRefreshRequested()) {
+            publishSnapshot();
+        }
+    }
+
+    /**
+     * The latest snapshot, waiting briefly for the game thread if there is none yet
+     * or if it lacks the map section that this reader needs.
+     */
+    private GameStateSnapshot getSnapshot(boolean needMap) {
+        GameStateSnapshot snapshot = GameStateSnapshot.current();
+        if (snapshot == null || (needMap && snapshot.inGame && !snapshot.hasSection("map"))) {
+            snapshot = GameStateSnapshot.awaitRefresh(SNAPSHOT_REFRESH_WAIT_MS);
+        }
+        return snapshot;
+    }
+
+    private static Map<String, Object> snapshotUnavailable() {
+        return MCPProtocol.buildToolCallResult("Error: game state not available yet - make sure the game is running, then retry", true);
+    }
+
+    /**
+     * The optional if_version argument, or null if absent.
+     */
+    private static Long getIfVersion(JsonObject args) throws InvalidCommandException {
+        if (args == null || !args.has("if_version") || args.get("if_version").isJsonNull()) {
+            return null;
+        }
+        try {
+            return args.get("if_version").getAsLong();
+        } catch (RuntimeException e) {
+            throw new InvalidCommandException("if_version must be an integer state_version");
+        }
+    }
+
+    /**
+     * The short reply to a conditional read when the state is still at the client's version.
+     */
+    private static Map<String, Object> buildUnchangedResult(GameStateSnapshot snapshot) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("unchanged", true);
+        result.put("state_version", snapshot.version);
+        result.put("ready_for_command", snapshot.isReadyForCommand());
+        return MCPProtocol.buildToolCallResultJson(result);
+    }
+
+    private Map<String, Object> executeGetGameState(JsonObject args) throws InvalidCommandException {
+        Long ifVersion = getIfVersion(args);
         Set<String> include = new HashSet<>();
         if (args != null && args.has("include") && args.get("include").isJsonArray()) {
             for (com.google.gson.JsonElement elem : args.getAsJsonArray("include")) {
                 include.add(elem.getAsString().toLowerCase());
             }
         }
-        HashMap<String, Object> state = GameStateConverter.getCommunicationState(include);
+        boolean needMap = include.contains("map");
+        if (needMap) {
+            GameStateSnapshot.setMapWanted();
+        }
+        GameStateSnapshot snapshot = getSnapshot(needMap);
+        if (snapshot == null) {
+            return snapshotUnavailable();
+        }
+        if (ifVersion != null && ifVersion == snapshot.version) {
+            return buildUnchangedResult(snapshot);
+        }
+
+        HashMap<String, Object> state = new HashMap<>();
+        state.put("state_version", snapshot.version);
+        state.put("ready_for_command", snapshot.isReadyForCommand());
+        state.put("in_game", snapshot.inGame);
+        if (snapshot.inGame) {
+            state.put("game_state", snapshot.buildGameState(include));
+        }
         return MCPProtocol.buildToolCallResultJson(state);
     }
 
-    private Map<String, Object> executeGetScreenState() {
-        HashMap<String, Object> state = GameStateConverter.getScreenOnlyState();
+    private Map<String, Object> executeGetScreenState(JsonObject args) throws InvalidCommandException {
+        Long ifVersion = getIfVersion(args);
+        GameStateSnapshot snapshot = getSnapshot(false);
+        if (snapshot == null) {
+            return snapshotUnavailable();
+        }
+        if (ifVersion != null && ifVersion == snapshot.version) {
+            return buildUnchangedResult(snapshot);
+        }
+        HashMap<String, Object> state = new HashMap<>(snapshot.screenState);
+        state.put("state_version", snapshot.version);
+        state.put("ready_for_command", snapshot.isReadyForCommand());
         return MCPProtocol.buildToolCallResultJson(state);
     }
 
-    private Map<String, Object> executeGetAvailableCommands() {
+    private Map<String, Object> executeGetAvailableCommands(JsonObject args) throws InvalidCommandException {
+        Long ifVersion = getIfVersion(args);
+        GameStateSnapshot snapshot = getSnapshot(false);
+        if (snapshot == null) {
+            return snapshotUnavailable();
+        }
+        if (ifVersion != null && ifVersion == snapshot.version) {
+            return buildUnchangedResult(snapshot);
+        }
+        Map<String, Object> result = new HashMap<>(snapshot.availableCommands);
+        result.put("state_version", snapshot.version);
+        result.put("ready_for_command", snapshot.isReadyForCommand());
+        return MCPProtocol.buildToolCallResultJson(result);
+    }
+
+    private Map<String, Object> executeGetStateDelta(JsonObject args) throws InvalidCommandException {
+        Long sinceVersion = null;
+        if (args != null && args.has("since_version") && !args.get("since_version").isJsonNull()) {
+            try {
+                sinceVersion = args.get("since_version").getAsLong();
+            } catch (RuntimeException e) {
+                throw new InvalidCommandException("since_version must be an integer state_version");
+            }
+        }
+        GameStateSnapshot snapshot = getSnapshot(false);
+        if (snapshot == null) {
+            return snapshotUnavailable();
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("state_version", snapshot.version);
+        result.put("ready_for_command", snapshot.isReadyForCommand());
+        GameStateSnapshot base = sinceVersion != null ? GameStateSnapshot.forVersion(sinceVersion) : null;
+        if (base == null) {
+            // Unknown or evicted base version: send everything so the client can start over
+            result.put("full", true);
+            result.put("state", snapshot.toDeltaDocument());
+        } else {
+            result.put("full", false);
+            result.put("base_version", base.version);
+            result.put("patch", JsonPatch.diff(base.toDeltaDocument(), snapshot.toDeltaDocument()));
+        }
+        return MCPProtocol.buildToolCallResultJson(result);
+    }
+
+    /**
+     * Tools that make sense on the current screen. Reads live game objects, so game thread only.
+     */
+    private Map<String, Object> buildAvailableCommands() {
         Map<String, Object> result = new HashMap<>();
         result.put("ready_for_command", GameStateListener.isWaitingForCommand());
 
@@ -425,7 +681,7 @@ public class MCPToolHandler {
             result.put("available_tools", availableTools);
         }
 
-        return MCPProtocol.buildToolCallResultJson(result);
+        return result;
     }
 
     private Map<String, Object> executeGetCardInfo(JsonObject args) {
@@ -435,7 +691,7 @@ public class MCPToolHandler {
         if (args != null && args.has("card_ids") && args.get("card_ids").isJsonArray()) {
             for (com.google.gson.JsonElement elem : args.getAsJsonArray("card_ids")) {
                 String cardId = elem.getAsString();
-                cards.add(GameStateConverter.getCardInfo(cardId));
+                cards.add(GameCatalog.getCardInfo(cardId));
             }
         }
 
@@ -450,7 +706,7 @@ public class MCPToolHandler {
         if (args != null && args.has("relic_ids") && args.get("relic_ids").isJsonArray()) {
             for (com.google.gson.JsonElement elem : args.getAsJsonArray("relic_ids")) {
                 String relicId = elem.getAsString();
-                relics.add(GameStateConverter.getRelicInfo(relicId));
+                relics.add(GameCatalog.getRelicInfo(relicId));
             }
         }
 
@@ -458,6 +714,96 @@ public class MCPToolHandler {
         return MCPProtocol.buildToolCallResultJson(result);
     }
 
+    private Map<String, Object> executeGetCatalog(JsonObject args) throws InvalidCommandException {
+        GameCatalog catalog = GameCatalog.get();
+        if (catalog == null) {
+            return MCPProtocol.buildToolCallResult("Catalog not available: the game is still loading, or building it failed (see the log)", true);
+        }
+        int cursor = getIntArgument(args, "cursor", 0);
+        int limit = getIntArgument(args, "limit", DEFAULT_CATALOG_PAGE_SIZE);
+        if (cursor < 0) {
+            throw new InvalidCommandException("cursor must not be negative");
+        }
+        if (limit < 1 || limit > MAX_CATALOG_PAGE_SIZE) {
+            throw new InvalidCommandException("limit must be between 1 and " + MAX_CATALOG_PAGE_SIZE);
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("hash", catalog.getHash());
+        if (args != null && args.has("if_hash") && !args.get("if_hash").isJsonNull()
+                && catalog.getHash().equals(args.get("if_hash").getAsString())) {
+            result.put("not_modified", true);
+            return MCPProtocol.buildToolCallResultJson(result);
+        }
+        result.put("total", catalog.size());
+        result.put("cursor", cursor);
+        if ((long) cursor + limit < catalog.size()) {
+            result.put("next_cursor", cursor + limit);
+        }
+        result.put("entries", catalog.getPage(cursor, limit));
+        return MCPProtocol.buildToolCallResultJson(result);
+    }
+
+    private Map<String, Object> executePlanRoute(JsonObject args) throws InvalidCommandException {
+        int topK = getIntArgument(args, "top_k", DEFAULT_ROUTE_COUNT);
+        if (topK < 1 || topK > MAX_ROUTE_COUNT) {
+            throw new InvalidCommandException("top_k must be between 1 and " + MAX_ROUTE_COUNT);
+        }
+        Map<String, Double> weights = RoutePlanner.defaultWeights();
+        if (args != null && args.has("weights") && !args.get("weights").isJsonNull()) {
+            if (!args.get("weights").isJsonObject()) {
+                throw new InvalidCommandException("weights must be an object");
+            }
+            for (Map.Entry<String, com.google.gson.JsonElement> entry : args.getAsJsonObject("weights").entrySet()) {
+                if (!weights.containsKey(entry.getKey())) {
+                    throw new InvalidCommandException("Unknown weight: " + entry.getKey() + ". Valid weights: " + weights.keySet());
+                }
+                try {
+                    weights.put(entry.getKey(), entry.getValue().getAsDouble());
+                } catch (RuntimeException e) {
+                    throw new InvalidCommandException("Weight " + entry.getKey() + " must be a number");
+                }
+            }
+        }
+
+        GameStateSnapshot.setMapWanted();
+        GameStateSnapshot snapshot = getSnapshot(true);
+        if (snapshot == null) {
+            return snapshotUnavailable();
+        }
+        if (!snapshot.inGame) {
+            throw new InvalidCommandException("plan_route is only available during a run");
+        }
+        if (snapshot.mapGraph == null) {
+            return snapshotUnavailable();
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("state_version", snapshot.version);
+        MapGraph.Node current = snapshot.mapGraph.getCurrentNode();
+        if (current != null) {
+            Map<String, Object> from = new LinkedHashMap<>();
+            from.put("x", current.x);
+            from.put("y", current.y);
+            from.put("symbol", current.symbol);
+            result.put("from", from);
+        }
+        result.put("weights", weights);
+        result.putAll(RoutePlanner.plan(snapshot.mapGraph, weights, topK));
+        return MCPProtocol.buildToolCallResultJson(result);
+    }
+
+    private static int getIntArgument(JsonObject args, String name, int defaultValue) throws InvalidCommandException {
+        if (args == null || !args.has(name) || args.get(name).isJsonNull()) {
+            return defaultValue;
+        }
+        try {
+            return args.get(name).getAsInt();
+        } catch (RuntimeException e) {
+            throw new InvalidCommandException(name + " must be an integer");
+        }
+    }
+
     private Map<String, Object> executePlayCard(JsonObject args) throws InvalidCommandException {
         int cardIndex = resolveCardIndex(args);
         StringBuilder command = new StringBuilder("play " + cardIndex);
@@ -556,108 +902,6 @@ public class MCPToolHandler {
         return MCPProtocol.buildToolCallResult("Cancelled", false);
     }
 
-    /**
-     * Execute multiple actions in sequence.
-     * Stops on first error or screen change.
-     */
-    private Map<String, Object> executeBatchActions(JsonObject params) {
-        if (!params.has("actions") || !params.get("actions").isJsonArray()) {
-            return MCPProtocol.buildToolCallResult("Error: 'actions' array is required", true);
-        }
-
-        com.google.gson.JsonArray actions = params.getAsJsonArray("actions");
-        int total = actions.size();
-        int successCount = 0;
-        int failedIndex = -1;
-        String failedAction = null;
-        String errorMessage = null;
-        boolean screenChanged = false;
-
-        // Track initial screen state
-        ChoiceScreenUtils.ChoiceType initialScreen = null;
-        boolean initialInDungeon = CommandExecutor.isInDungeon();
-        if (initialInDungeon) {
-            initialScreen = ChoiceScreenUtils.getCurrentChoiceType();
-        }
-
-        for (int i = 0; i < total; i++) {
-            JsonObject action = actions.get(i).getAsJsonObject();
-            if (!action.has("action")) {
-                failedIndex = i;
-                errorMessage = "Missing 'action' field";
-                break;
-            }
-
-            String actionType = action.get("action").getAsString();
-
-            try {
-                if ("wait".equals(actionType)) {
-                    int waitMs = action.has("ms") ? action.get("ms").getAsInt() : 100;
-                    Thread.sleep(Math.min(waitMs, 500));
-                } else {
-                    executeSingleBatchAction(actionType, action);
-                }
-                successCount++;
-
-                // Check if screen changed after action (except for expected transitions)
-                if (initialInDungeon && CommandExecutor.isInDungeon()) {
-                    ChoiceScreenUtils.ChoiceType currentScreen = ChoiceScreenUtils.getCurrentChoiceType();
-                    if (initialScreen != currentScreen) {
-                        // Screen changed - stop batch execution
-                        screenChanged = true;
-                        if (i < total - 1) {
-                            // There are more actions, but we stopped due to screen change
-                            break;
-                        }
-                    }
-                }
-            } catch (Exception e) {
-                failedIndex = i;
-                failedAction = actionType;
-                errorMessage = e.getMessage();
-                break;
-            }
-        }
-
-        // Build minimal response
-        Map<String, Object> response = new HashMap<>();
-
-        if (errorMessage == null) {
-            response.put("success", true);
-            if (screenChanged && successCount < total) {
-                response.put("message", "Executed " + successCount + "/" + total + " (screen changed)");
-                response.put("partial", true);
-            } else {
-                response.put("message", "Executed " + successCount + " actions");
-            }
-        } else {
-            response.put("success", false);
-            response.put("executed", successCount);
-            response.put("failed_at", failedIndex);
-            if (failedAction != null) {
-                response.put("failed_action", failedAction);
-            }
-            response.put("error", errorMessage);
-        }
-
-        // Include minimal state info
-        if (CommandExecutor.isInDungeon()) {
-            ChoiceScreenUtils.ChoiceType screenType = ChoiceScreenUtils.getCurrentChoiceType();
-            response.put("screen", screenType.name());
-
-            if (AbstractDungeon.getCurrRoom().phase.equals(AbstractRoom.RoomPhase.COMBAT) && !AbstractDungeon.isScreenUp) {
-                response.put("hand_size", AbstractDungeon.player.hand.size());
-                response.put("energy", AbstractDungeon.player.energy.energy);
-            } else if (CommandExecutor.isChooseCommandAvailable()) {
-                response.put("choices", ChoiceScreenUtils.getCurrentChoiceList().size());
-            }
-
-            response.put("can_proceed", ChoiceScreenUtils.isConfirmButtonAvailable());
-        }
-
-        return MCPProtocol.buildToolCallResultJson(response);
-    }
-
     /**
      * Execute a single action from batch.
      * Public so MCPServer can call it for async batch execution.
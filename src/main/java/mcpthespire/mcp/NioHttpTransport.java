@@ -0,0 +1,823 @@
+package mcpthespire.mcp;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+/**
+ * Selector-based HTTP/1.1 transport. One thread multiplexes every connection and a small
+ * worker pool runs request handling, so open SSE streams and tool calls waiting on the
+ * game thread do not hold any thread.
+ *
+ * Supports keep-alive, pipelining, Content-Length request bodies and "Expect: 100-continue".
+ * SSE and streamed JSON responses use chunked transfer encoding.
+ */
+class NioHttpTransport implements HttpTransport {
+
+    private static final Logger logger = LogManager.getLogger(NioHttpTransport.class.getName());
+    private static final int WORKER_THREADS = 2;
+    private static final int READ_BUFFER_SIZE = 8192;
+    private static final int MAX_HEADER_BYTES = 16 * 1024;
+    private static final long MAX_SSE_BACKLOG_BYTES = 1024 * 1024;
+    private static final int RESPONSE_CHUNK_BYTES = 16 * 1024;
+    private static final long SELECT_TIMEOUT_MS = 1000;
+    private static final long KEEPALIVE_INTERVAL_MS = 30000;
+    private static final long IDLE_TIMEOUT_MS = 120000;
+    private static final byte[] CRLF = {'\r', '\n'};
+
+    private final MCPServer server;
+    private final String host;
+    private final int port;
+
+    private Selector selector;
+    private ServerSocketChannel serverChannel;
+    private ExecutorService workers;
+    private volatile boolean running;
+
+    // Connections whose interest ops must be recomputed on the selector thread
+    private final Queue<Connection> pendingUpdates = new ConcurrentLinkedQueue<>();
+    // Selector thread only
+    private final Set<Connection> connections = new HashSet<>();
+    private long lastKeepalive;
+
+    NioHttpTransport(MCPServer server, String host, int port) {
+        this.server = server;
+        this.host = host;
+        this.port = port;
+    }
+
+    @Override
+    public void start() throws IOException {
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.configureBlocking(false);
+        serverChannel.socket().setReuseAddress(true);
+        serverChannel.socket().bind(new InetSocketAddress(host, port));
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+
+        workers = Executors.newFixedThreadPool(WORKER_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "MCPServer-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        running = true;
+        Thread selectorThread = new Thread(this::runSelector, "MCPServer-NIO");
+        selectorThread.setDaemon(true);
+        selectorThread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (selector != null) {
+            selector.wakeup();
+        }
+        if (workers != null) {
+            workers.shutdownNow();
+        }
+    }
+
+    private void runSelector() {
+        lastKeepalive = System.currentTimeMillis();
+        try {
+            while (running) {
+                selector.select(SELECT_TIMEOUT_MS);
+
+                Connection updated;
+                while ((updated = pendingUpdates.poll()) != null) {
+                    try {
+                        updated.update();
+                    } catch (RuntimeException e) {
+                        logger.error("Error updating connection, closing it", e);
+                        updated.close();
+                    }
+                }
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        try {
+                            accept();
+                        } catch (IOException e) {
+                            logger.warn("Failed to accept connection", e);
+                        }
+                        continue;
+                    }
+                    Connection connection = (Connection) key.attachment();
+                    try {
+                        if (key.isReadable()) {
+                            connection.onReadable();
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            connection.onWritable();
+                        }
+                    } catch (IOException | CancelledKeyException e) {
+                        connection.close();
+                    } catch (RuntimeException e) {
+                        // One bad connection must not take the selector thread (and every other client) down
+                        logger.error("Error serving connection, closing it", e);
+                        connection.close();
+                    }
+                }
+
+                runTimers();
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.error("NIO transport selector failed", e);
+        } finally {
+            for (Connection connection : new ArrayList<>(connections)) {
+                connection.close();
+            }
+            try {
+                serverChannel.close();
+                selector.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = serverChannel.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+            Connection connection = new Connection(channel, key);
+            key.attach(connection);
+            connections.add(connection);
+        }
+    }
+
+    /**
+     * Periodic work on the selector thread: SSE keepalives and idle connection cleanup.
+     */
+    private void runTimers() {
+        long now = System.currentTimeMillis();
+        boolean sendKeepalive = now - lastKeepalive >= KEEPALIVE_INTERVAL_MS;
+        if (sendKeepalive) {
+            lastKeepalive = now;
+        }
+        for (Connection connection : new ArrayList<>(connections)) {
+            try {
+                if (connection.state == State.STREAMING) {
+                    if (sendKeepalive && connection.eventStream != null) {
+                        connection.eventStream.send(": keepalive\n\n");
+                    }
+                } else if (connection.state == State.READING && connection.in.position() == 0
+                        && now - connection.lastActivity > IDLE_TIMEOUT_MS) {
+                    connection.close();
+                }
+            } catch (RuntimeException e) {
+                logger.error("Error in connection timer, closing it", e);
+                connection.close();
+            }
+        }
+    }
+
+    private void dispatch(NioExchange exchange) {
+        try {
+            workers.execute(() -> {
+                try {
+                    server.handleExchange(exchange);
+                } catch (Exception e) {
+                    logger.error("Error handling HTTP exchange", e);
+                    exchange.sendErrorIfPending(500);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            exchange.connection.close();
+        }
+    }
+
+    private static String reasonPhrase(int status) {
+        switch (status) {
+            case 100: return "Continue";
+            case 200: return "OK";
+            case 202: return "Accepted";
+            case 204: return "No Content";
+            case 400: return "Bad Request";
+            case 404: return "Not Found";
+            case 405: return "Method Not Allowed";
+            case 411: return "Length Required";
+            case 413: return "Payload Too Large";
+            case 431: return "Request Header Fields Too Large";
+            case 500: return "Internal Server Error";
+            case 501: return "Not Implemented";
+            case 503: return "Service Unavailable";
+            default: return "Status " + status;
+        }
+    }
+
+    private enum State {
+        READING,    // parsing the next request
+        HANDLING,   // request dispatched, waiting for the response
+        STREAMING,  // SSE response in progress
+        CLOSING     // close once buffered output is flushed
+    }
+
+    private class Connection {
+        final SocketChannel channel;
+        final SelectionKey key;
+        final String remoteAddress;
+        final Queue<ByteBuffer> out = new ConcurrentLinkedQueue<>();
+        final AtomicLong queuedBytes = new AtomicLong();
+        ByteBuffer in = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        long lastActivity = System.currentTimeMillis();
+
+        // Owned by the selector thread
+        State state = State.READING;
+        boolean continueSent;
+        volatile boolean closed; // Also read by workers registering a close listener
+
+        // Signals from worker threads, applied in update()
+        volatile boolean responseDone;
+        volatile boolean closeAfterResponse;
+        volatile NioEventStream eventStream;
+        // Notified if the connection closes, e.g. a client giving up on a queued tool call
+        volatile Runnable closeListener;
+
+        Connection(SocketChannel channel, SelectionKey key) {
+            this.channel = channel;
+            this.key = key;
+            this.remoteAddress = String.valueOf(channel.socket().getRemoteSocketAddress());
+        }
+
+        /**
+         * Queue bytes for writing from any thread.
+         */
+        void enqueue(byte[] bytes) {
+            queuedBytes.addAndGet(bytes.length);
+            out.add(ByteBuffer.wrap(bytes));
+            requestUpdate();
+        }
+
+        /**
+         * Queue the final bytes of a response from any thread and return to reading (or close).
+         */
+        void finishResponse(byte[] bytes, boolean close) {
+            queuedBytes.addAndGet(bytes.length);
+            out.add(ByteBuffer.wrap(bytes));
+            closeAfterResponse = close;
+            responseDone = true;
+            requestUpdate();
+        }
+
+        /**
+         * Close from any thread once buffered output is flushed.
+         */
+        void abort() {
+            closeAfterResponse = true;
+            responseDone = true;
+            requestUpdate();
+        }
+
+        void requestUpdate() {
+            pendingUpdates.add(this);
+            selector.wakeup();
+        }
+
+        void onReadable() throws IOException {
+            if (state == State.HANDLING && !in.hasRemaining()) {
+                // Pipelined data is piling up behind the current request; stop reading until it is answered
+                key.interestOps(key.interestOps() & ~SelectionKey.OP_READ);
+                return;
+            }
+            if (!in.hasRemaining()) {
+                grow(in.capacity() * 2);
+            }
+            int read = channel.read(in);
+            if (read < 0) {
+                close();
+                return;
+            }
+            lastActivity = System.currentTimeMillis();
+            if (state == State.STREAMING) {
+                // Clients do not send anything on an event stream; discard it
+                in.clear();
+                return;
+            }
+            if (state == State.READING) {
+                parseRequest();
+            }
+        }
+
+        void onWritable() throws IOException {
+            ByteBuffer buffer;
+            while ((buffer = out.peek()) != null) {
+                channel.write(buffer);
+                if (buffer.hasRemaining()) {
+                    break;
+                }
+                out.poll();
+                queuedBytes.addAndGet(-buffer.capacity());
+            }
+            lastActivity = System.currentTimeMillis();
+            update();
+        }
+
+        /**
+         * Apply worker signals and recompute interest ops. Selector thread only.
+         */
+        void update() {
+            if (closed) {
+                return;
+            }
+            if (eventStream != null && state != State.CLOSING) {
+                state = State.STREAMING;
+            }
+            if (responseDone && state == State.HANDLING) {
+                responseDone = false;
+                state = closeAfterResponse ? State.CLOSING : State.READING;
+            }
+            if (state == State.STREAMING && !eventStream.isOpen()) {
+                state = State.CLOSING;
+            }
+            if (out.isEmpty() && state == State.CLOSING) {
+                close();
+                return;
+            }
+
+            int ops = 0;
+            if (!out.isEmpty()) {
+                ops |= SelectionKey.OP_WRITE;
+            }
+            if (state == State.READING || state == State.STREAMING || (state == State.HANDLING && in.hasRemaining())) {
+                // Reading while handling lets a disconnect be seen before the response is ready. Once
+                // pipelined data fills the buffer, stop until the response is sent or the key stays ready forever.
+                ops |= SelectionKey.OP_READ;
+            }
+            try {
+                key.interestOps(ops);
+            } catch (CancelledKeyException e) {
+                close();
+                return;
+            }
+
+            // A pipelined request may already be buffered
+            if (state == State.READING && in.position() > 0) {
+                try {
+                    parseRequest();
+                } catch (IOException e) {
+                    close();
+                }
+            }
+        }
+
+        private void parseRequest() throws IOException {
+            byte[] data = in.array();
+            int length = in.position();
+            int headerEnd = indexOfHeaderEnd(data, length);
+            if (headerEnd < 0) {
+                if (length > MAX_HEADER_BYTES) {
+                    reject(431);
+                }
+                return;
+            }
+
+            String head = new String(data, 0, headerEnd, StandardCharsets.ISO_8859_1);
+            String[] lines = head.split("\r\n");
+            String[] requestLine = lines[0].split(" ");
+            if (requestLine.length != 3) {
+                reject(400);
+                return;
+            }
+            Map<String, String> headers = new HashMap<>();
+            for (int i = 1; i < lines.length; i++) {
+                int colon = lines[i].indexOf(':');
+                if (colon > 0) {
+                    String name = lines[i].substring(0, colon).trim().toLowerCase(Locale.ROOT);
+                    if (!headers.containsKey(name)) {
+                        headers.put(name, lines[i].substring(colon + 1).trim());
+                    }
+                }
+            }
+
+            if (headers.containsKey("transfer-encoding")) {
+                reject(411);
+                return;
+            }
+            int contentLength = 0;
+            if (headers.containsKey("content-length")) {
+                try {
+                    contentLength = Integer.parseInt(headers.get("content-length"));
+                } catch (NumberFormatException e) {
+                    reject(400);
+                    return;
+                }
+            }
+            if (contentLength < 0) {
+                reject(400);
+                return;
+            }
+            if (contentLength > server.getMaxRequestBodyBytes()) {
+                reject(413);
+                return;
+            }
+
+            int bodyStart = headerEnd + 4;
+            int requestEnd = bodyStart + contentLength;
+            if (length < requestEnd) {
+                if (in.capacity() < requestEnd) {
+                    grow(requestEnd);
+                }
+                if (!continueSent && "100-continue".equalsIgnoreCase(headers.get("expect"))) {
+                    continueSent = true;
+                    enqueue("HTTP/1.1 100 Continue\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1));
+                }
+                return;
+            }
+
+            byte[] body = new byte[contentLength];
+            System.arraycopy(data, bodyStart, body, 0, contentLength);
+            // Keep any pipelined bytes for the next request
+            ByteBuffer remaining = ByteBuffer.allocate(Math.max(READ_BUFFER_SIZE, length - requestEnd));
+            remaining.put(data, requestEnd, length - requestEnd);
+            in = remaining;
+            continueSent = false;
+
+            String connectionHeader = headers.get("connection");
+            boolean keepAlive = "HTTP/1.1".equals(requestLine[2])
+                ? !"close".equalsIgnoreCase(connectionHeader)
+                : "keep-alive".equalsIgnoreCase(connectionHeader);
+
+            String target = requestLine[1];
+            int query = target.indexOf('?');
+            String path = query >= 0 ? target.substring(0, query) : target;
+
+            state = State.HANDLING;
+            key.interestOps((in.hasRemaining() ? SelectionKey.OP_READ : 0) | (out.isEmpty() ? 0 : SelectionKey.OP_WRITE));
+            boolean chunkedAllowed = !"HTTP/1.0".equals(requestLine[2]);
+            dispatch(new NioExchange(this, requestLine[0], path, headers, body, keepAlive, chunkedAllowed));
+        }
+
+        private void reject(int status) {
+            state = State.CLOSING;
+            byte[] message = reasonPhrase(status).getBytes(StandardCharsets.ISO_8859_1);
+            String head = "HTTP/1.1 " + status + " " + reasonPhrase(status) + "\r\n" +
+                "Content-Type: text/plain\r\n" +
+                "Content-Length: " + message.length + "\r\n" +
+                "Connection: close\r\n\r\n";
+            out.add(ByteBuffer.wrap(head.getBytes(StandardCharsets.ISO_8859_1)));
+            out.add(ByteBuffer.wrap(message));
+            key.interestOps(SelectionKey.OP_WRITE);
+        }
+
+        private void grow(int capacity) {
+            ByteBuffer bigger = ByteBuffer.allocate(capacity);
+            in.flip();
+            bigger.put(in);
+            in = bigger;
+        }
+
+        void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            connections.remove(this);
+            if (eventStream != null) {
+                eventStream.open = false;
+            }
+            Runnable listener = closeListener;
+            if (listener != null) {
+                closeListener = null;
+                try {
+                    workers.execute(listener);
+                } catch (RejectedExecutionException ignored) {
+                    // Shutting down
+                }
+            }
+            key.cancel();
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private static int indexOfHeaderEnd(byte[] data, int length) {
+        for (int i = 0; i + 3 < length; i++) {
+            if (data[i] == '\r' && data[i + 1] == '\n' && data[i + 2] == '\r' && data[i + 3] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private class NioExchange implements MCPExchange {
+        final Connection connection;
+        private final String method;
+        private final String path;
+        private final Map<String, String> headers;
+        private final byte[] body;
+        private final boolean keepAlive;
+        private final boolean chunkedAllowed;
+        private final Map<String, String> responseHeaders = new LinkedHashMap<>();
+        private boolean responded;
+
+        NioExchange(Connection connection, String method, String path, Map<String, String> headers,
+                    byte[] body, boolean keepAlive, boolean chunkedAllowed) {
+            this.connection = connection;
+            this.method = method;
+            this.path = path;
+            this.headers = headers;
+            this.body = body;
+            this.keepAlive = keepAlive;
+            this.chunkedAllowed = chunkedAllowed;
+        }
+
+        @Override
+        public String getRequestMethod() {
+            return method;
+        }
+
+        @Override
+        public String getRequestPath() {
+            return path;
+        }
+
+        @Override
+        public String getRequestHeader(String name) {
+            return headers.get(name.toLowerCase(Locale.ROOT));
+        }
+
+        @Override
+        public InputStream getRequestBody() {
+            return new ByteArrayInputStream(body);
+        }
+
+        @Override
+        public String getRemoteAddress() {
+            return connection.remoteAddress;
+        }
+
+        @Override
+        public synchronized void setResponseHeader(String name, String value) {
+            responseHeaders.put(name, value);
+        }
+
+        @Override
+        public synchronized String getResponseHeader(String name) {
+            return responseHeaders.get(name);
+        }
+
+        @Override
+        public synchronized void sendResponse(int status, byte[] responseBody) throws IOException {
+            if (responded) {
+                throw new IOException("Response already sent");
+            }
+            responded = true;
+            if (status != 204) {
+                responseHeaders.put("Content-Length", String.valueOf(responseBody == null ? 0 : responseBody.length));
+            }
+            responseHeaders.put("Connection", keepAlive ? "keep-alive" : "close");
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            writeHead(bytes, status);
+            if (responseBody != null && status != 204) {
+                bytes.write(responseBody);
+            }
+            connection.finishResponse(bytes.toByteArray(), !keepAlive);
+        }
+
+        @Override
+        public synchronized OutputStream openResponseStream(int status) throws IOException {
+            if (!chunkedAllowed) {
+                // HTTP/1.0 has no chunked encoding; buffer and send with a Content-Length on close
+                return new ByteArrayOutputStream() {
+                    @Override
+                    public void close() throws IOException {
+                        sendResponse(status, toByteArray());
+                    }
+                };
+            }
+            if (responded) {
+                throw new IOException("Response already sent");
+            }
+            responded = true;
+            responseHeaders.put("Transfer-Encoding", "chunked");
+            responseHeaders.put("Connection", keepAlive ? "keep-alive" : "close");
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            writeHead(bytes, status);
+            connection.enqueue(bytes.toByteArray());
+            return new ChunkedOutputStream(connection, !keepAlive);
+        }
+
+        @Override
+        public synchronized SseStream openEventStream() throws IOException {
+            if (responded) {
+                throw new IOException("Response already sent");
+            }
+            responded = true;
+            responseHeaders.put("Content-Type", "text/event-stream");
+            responseHeaders.put("Cache-Control", "no-cache");
+            responseHeaders.put("Connection", "keep-alive");
+            responseHeaders.put("Transfer-Encoding", "chunked");
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            writeHead(bytes, 200);
+            NioEventStream stream = new NioEventStream(connection);
+            connection.eventStream = stream;
+            connection.enqueue(bytes.toByteArray());
+            return stream;
+        }
+
+        @Override
+        public void onClose(Runnable callback) {
+            connection.closeListener = callback;
+            if (connection.closed) {
+                connection.closeListener = null;
+                callback.run();
+            }
+        }
+
+        @Override
+        public <T> void whenComplete(CompletableFuture<T> future, BiConsumer<? super T, ? super Throwable> callback) {
+            try {
+                future.whenCompleteAsync(callback, workers);
+            } catch (RejectedExecutionException e) {
+                connection.abort();
+            }
+        }
+
+        synchronized void sendErrorIfPending(int status) {
+            if (!responded) {
+                try {
+                    sendResponse(status, null);
+                } catch (IOException ignored) {
+                }
+            }
+        }
+
+        private void writeHead(ByteArrayOutputStream bytes, int status) throws IOException {
+            StringBuilder head = new StringBuilder();
+            head.append("HTTP/1.1 ").append(status).append(' ').append(reasonPhrase(status)).append("\r\n");
+            for (Map.Entry<String, String> header : responseHeaders.entrySet()) {
+                head.append(header.getKey()).append(": ").append(header.getValue()).append("\r\n");
+            }
+            head.append("\r\n");
+            bytes.write(head.toString().getBytes(StandardCharsets.ISO_8859_1));
+        }
+    }
+
+    /**
+     * Response body written as HTTP chunks of up to {@link #RESPONSE_CHUNK_BYTES} onto the connection's write queue.
+     */
+    private static class ChunkedOutputStream extends OutputStream {
+        private final Connection connection;
+        private final boolean closeConnection;
+        private final byte[] buffer = new byte[RESPONSE_CHUNK_BYTES];
+        private int count;
+        private boolean closed;
+
+        ChunkedOutputStream(Connection connection, boolean closeConnection) {
+            this.connection = connection;
+            this.closeConnection = closeConnection;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (count == buffer.length) {
+                writeChunk(false);
+            }
+            buffer[count++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] data, int offset, int length) throws IOException {
+            while (length > 0) {
+                if (count == buffer.length) {
+                    writeChunk(false);
+                }
+                int n = Math.min(length, buffer.length - count);
+                System.arraycopy(data, offset, buffer, count, n);
+                count += n;
+                offset += n;
+                length -= n;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (count > 0) {
+                writeChunk(false);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            writeChunk(true);
+        }
+
+        private void writeChunk(boolean last) throws IOException {
+            if (closed && !last) {
+                throw new IOException("Stream closed");
+            }
+            ByteArrayOutputStream chunk = new ByteArrayOutputStream(count + 16);
+            if (count > 0) {
+                chunk.write((Integer.toHexString(count) + "\r\n").getBytes(StandardCharsets.ISO_8859_1));
+                chunk.write(buffer, 0, count);
+                chunk.write(CRLF);
+                count = 0;
+            }
+            if (last) {
+                chunk.write("0\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1));
+                connection.finishResponse(chunk.toByteArray(), closeConnection);
+            } else {
+                connection.enqueue(chunk.toByteArray());
+            }
+        }
+    }
+
+    /**
+     * SSE stream that frames each event as one HTTP chunk on the connection's write queue.
+     * A client that stops reading is disconnected once its backlog exceeds {@link #MAX_SSE_BACKLOG_BYTES}.
+     */
+    private static class NioEventStream implements SseStream {
+        private final Connection connection;
+        volatile boolean open = true;
+
+        NioEventStream(Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public boolean send(String frame) {
+            if (!open) {
+                return false;
+            }
+            byte[] data = frame.getBytes(StandardCharsets.UTF_8);
+            if (data.length == 0) {
+                return true;
+            }
+            byte[] size = (Integer.toHexString(data.length) + "\r\n").getBytes(StandardCharsets.ISO_8859_1);
+            byte[] chunk = new byte[size.length + data.length + CRLF.length];
+            System.arraycopy(size, 0, chunk, 0, size.length);
+            System.arraycopy(data, 0, chunk, size.length, data.length);
+            System.arraycopy(CRLF, 0, chunk, size.length + data.length, CRLF.length);
+
+            if (connection.queuedBytes.get() + chunk.length > MAX_SSE_BACKLOG_BYTES) {
+                logger.warn("SSE client is not reading, closing stream");
+                close();
+                return false;
+            }
+            connection.enqueue(chunk);
+            return true;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open;
+        }
+
+        @Override
+        public void close() {
+            if (!open) {
+                return;
+            }
+            open = false;
+            // Terminating chunk; update() then closes the connection once it is flushed
+            connection.enqueue("0\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1));
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package mcpthespire.mcp;
+
+import mcpthespire.MapGraph;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds the best routes from the player's position to the end of the act. Every node is worth the
+ * weight of its room type, and a route is worth the sum of its nodes. The k best routes are kept per
+ * node, working up from the top row, so the cost grows with the number of nodes and edges rather
+ * than with the number of paths.
+ */
+final class RoutePlanner {
+
+    static final String ELITE = "elite";
+    static final String REST = "rest";
+    static final String SHOP = "shop";
+    static final String UNKNOWN = "unknown";
+    static final String TREASURE = "treasure";
+    static final String MONSTER = "monster";
+    static final String EMERALD_KEY = "emerald_key";
+
+    // Weight names in the order counts are reported
+    static final String[] WEIGHT_NAMES = {ELITE, REST, SHOP, UNKNOWN, TREASURE, MONSTER, EMERALD_KEY};
+
+    static Map<String, Double> defaultWeights() {
+        Map<String, Double> weights = new LinkedHashMap<>();
+        weights.put(ELITE, 1.0);
+        weights.put(REST, 1.0);
+        weights.put(SHOP, 0.5);
+        weights.put(UNKNOWN, 0.5);
+        weights.put(TREASURE, 0.0);
+        weights.put(MONSTER, 0.0);
+        weights.put(EMERALD_KEY, 0.0);
+        return weights;
+    }
+
+    private final Map<String, Double> weights;
+    private final int topK;
+    private final Map<MapGraph.Node, List<Route>> best = new IdentityHashMap<>();
+    private final Map<MapGraph.Node, Long> pathCounts = new IdentityHashMap<>();
+
+    private RoutePlanner(Map<String, Double> weights, int topK) {
+        this.weights = weights;
+        this.topK = topK;
+    }
+
+    /**
+     * The {@code topK} best routes from the graph's next nodes, best first, and how many routes there are.
+     */
+    static Map<String, Object> plan(MapGraph graph, Map<String, Double> weights, int topK) {
+        RoutePlanner planner = new RoutePlanner(weights, topK);
+        // Nodes are ordered by row, so walking backwards sees every child before its parents
+        List<MapGraph.Node> nodes = graph.getNodes();
+        for (int i = nodes.size() - 1; i >= 0; i--) {
+            planner.solve(nodes.get(i));
+        }
+
+        List<Route> candidates = new ArrayList<>();
+        long totalPaths = 0;
+        for (MapGraph.Node start : graph.getNextNodes()) {
+            if (planner.best.containsKey(start)) {
+                candidates.addAll(planner.best.get(start));
+                totalPaths += planner.pathCounts.get(start);
+            }
+        }
+        List<Route> routes = planner.keepBest(candidates);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("total_paths", totalPaths);
+        List<Object> jsonRoutes = new ArrayList<>();
+        for (Route route : routes) {
+            jsonRoutes.add(planner.toJson(route));
+        }
+        result.put("routes", jsonRoutes);
+        return result;
+    }
+
+    private void solve(MapGraph.Node node) {
+        double value = score(node);
+        List<Route> candidates = new ArrayList<>();
+        long paths = 0;
+        for (MapGraph.Node child : node.getChildren()) {
+            if (!best.containsKey(child)) {
+                continue;
+            }
+            for (Route rest : best.get(child)) {
+                candidates.add(new Route(node, value + rest.score, rest));
+            }
+            paths += pathCounts.get(child);
+        }
+        if (node.getChildren().isEmpty()) {
+            // Top of the map: the route continues to the boss
+            candidates.add(new Route(node, value, null));
+            paths = 1;
+        }
+        best.put(node, keepBest(candidates));
+        pathCounts.put(node, paths);
+    }
+
+    private List<Route> keepBest(List<Route> candidates) {
+        candidates.sort(RoutePlanner::compare);
+        return new ArrayList<>(candidates.subList(0, Math.min(topK, candidates.size())));
+    }
+
+    /**
+     * Higher score first; equal scores by leftmost path, so results are stable.
+     */
+    private static int compare(Route a, Route b) {
+        int byScore = Double.compare(b.score, a.score);
+        if (byScore != 0) {
+            return byScore;
+        }
+        for (Route ra = a, rb = b; ra != null && rb != null; ra = ra.next, rb = rb.next) {
+            if (ra.node.x != rb.node.x) {
+                return Integer.compare(ra.node.x, rb.node.x);
+            }
+        }
+        return 0;
+    }
+
+    private double score(MapGraph.Node node) {
+        double value = 0;
+        String type = roomType(node);
+        if (type != null) {
+            value += weights.get(type);
+        }
+        if (node.emeraldKey) {
+            value += weights.get(EMERALD_KEY);
+        }
+        return value;
+    }
+
+    private static String roomType(MapGraph.Node node) {
+        if (node.symbol == null) {
+            return null;
+        }
+        switch (node.symbol) {
+            case "E":
+                return ELITE;
+            case "R":
+                return REST;
+            case "$":
+                return SHOP;
+            case "?":
+                return UNKNOWN;
+            case "T":
+                return TREASURE;
+            case "M":
+                return MONSTER;
+            default:
+                return null;
+        }
+    }
+
+    private Map<String, Object> toJson(Route route) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (String name : WEIGHT_NAMES) {
+            counts.put(name, 0);
+        }
+        List<Object> path = new ArrayList<>();
+        for (Route step = route; step != null; step = step.next) {
+            MapGraph.Node node = step.node;
+            Map<String, Object> jsonNode = new LinkedHashMap<>();
+            jsonNode.put("x", node.x);
+            jsonNode.put("y", node.y);
+            jsonNode.put("symbol", node.symbol);
+            if (node.emeraldKey) {
+                jsonNode.put("emerald_key", true);
+                counts.put(EMERALD_KEY, counts.get(EMERALD_KEY) + 1);
+            }
+            path.add(jsonNode);
+            String type = roomType(node);
+            if (type != null) {
+                counts.put(type, counts.get(type) + 1);
+            }
+        }
+        Map<String, Object> jsonRoute = new LinkedHashMap<>();
+        jsonRoute.put("score", route.score);
+        jsonRoute.put("counts", counts);
+        jsonRoute.put("path", path);
+        return jsonRoute;
+    }
+
+    /**
+     * A route from {@code node} to the top of the map, sharing its tail with other routes.
+     */
+    private static final class Route {
+        final MapGraph.Node node;
+        final double score;
+        final Route next;
+
+        Route(MapGraph.Node node, double score, Route next) {
+            this.node = node;
+            this.score = score;
+            this.next = next;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package mcpthespire.mcp;
+
+/**
+ * An open server-sent events stream. Implementations never block the caller on network I/O.
+ */
+interface SseStream {
+
+    /**
+     * Queue a fully framed SSE block (e.g. "data: {...}\n\n" or ": comment\n\n").
+     * Returns false if the stream has been closed.
+     */
+    boolean send(String frame);
+
+    boolean isOpen();
+
+    void close();
+}
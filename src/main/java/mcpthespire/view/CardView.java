@@ -0,0 +1,124 @@
+package mcpthespire.view;
+
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonWriter;
+import com.megacrit.cardcrawl.cards.AbstractCard;
+
+import java.io.IOException;
+
+/**
+ * Immutable card state. Zero and default values are left out of the JSON to keep it compact.
+ */
+@JsonAdapter(CardView.Writer.class)
+public final class CardView {
+
+    public final String name;
+    public final String uuid;
+    public final String id;
+    public final String type;
+    public final int cost;
+    public final int upgrades;
+    public final Boolean isPlayable; // null outside combat
+    public final boolean hasTarget;
+    public final boolean exhausts;
+    public final int damage;
+    public final int baseDamage;
+    public final int block;
+    public final int baseBlock;
+    public final int magicNumber;
+    public final int baseMagicNumber;
+    public final int heal;
+    public final int draw;
+    public final int discard;
+    public final int misc;
+    public final int price;
+
+    public CardView(AbstractCard card, Boolean isPlayable, int price) {
+        this.name = card.name;
+        this.uuid = card.uuid.toString();
+        this.id = card.cardID;
+        this.type = card.type.name();
+        this.cost = card.costForTurn;
+        this.upgrades = card.timesUpgraded;
+        this.isPlayable = isPlayable;
+        this.hasTarget = card.target == AbstractCard.CardTarget.SELF_AND_ENEMY || card.target == AbstractCard.CardTarget.ENEMY;
+        this.exhausts = card.exhaust;
+        this.damage = card.damage;
+        this.baseDamage = card.baseDamage;
+        this.block = card.block;
+        this.baseBlock = card.baseBlock;
+        this.magicNumber = card.magicNumber;
+        this.baseMagicNumber = card.baseMagicNumber;
+        this.heal = card.heal;
+        this.draw = card.draw;
+        this.discard = card.discard;
+        this.misc = card.misc;
+        this.price = price;
+    }
+
+    static final class Writer extends ViewWriter<CardView> {
+        Writer() {
+            super(CardView.class);
+        }
+
+        @Override
+        void writeView(JsonWriter out, CardView card) throws IOException {
+            out.beginObject();
+            // Essential fields - always include
+            out.name("name").value(card.name);
+            out.name("uuid").value(card.uuid);
+            out.name("id").value(card.id);
+            out.name("type").value(card.type);
+            out.name("cost").value(card.cost);
+
+            if (card.upgrades > 0) {
+                out.name("upgrades").value(card.upgrades);
+            }
+            if (card.isPlayable != null) {
+                out.name("is_playable").value(card.isPlayable);
+            }
+            if (card.hasTarget) {
+                out.name("has_target").value(true);
+            }
+            if (card.exhausts) {
+                out.name("exhausts").value(true);
+            }
+
+            // Numeric values - only if non-zero; base values only if modified
+            if (card.damage > 0) {
+                out.name("damage").value(card.damage);
+                if (card.baseDamage != card.damage) {
+                    out.name("base_damage").value(card.baseDamage);
+                }
+            }
+            if (card.block > 0) {
+                out.name("block").value(card.block);
+                if (card.baseBlock != card.block) {
+                    out.name("base_block").value(card.baseBlock);
+                }
+            }
+            if (card.magicNumber > 0) {
+                out.name("magic_number").value(card.magicNumber);
+                if (card.baseMagicNumber != card.magicNumber) {
+                    out.name("base_magic_number").value(card.baseMagicNumber);
+                }
+            }
+            if (card.heal > 0) {
+                out.name("heal").value(card.heal);
+            }
+            if (card.draw > 0) {
+                out.name("draw").value(card.draw);
+            }
+            if (card.discard > 0) {
+                out.name("discard").value(card.discard);
+            }
+            if (card.misc != 0) {
+                out.name("misc").value(card.misc);
+            }
+            if (card.price != Price.NONE) {
+                out.name("price").value(card.price);
+            }
+            out.endObject();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package mcpthespire.view;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * A value that was serialized ahead of time. Writing it copies the JSON text into the output
+ * instead of walking the original object again.
+ */
+@JsonAdapter(JsonFragment.Adapter.class)
+public final class JsonFragment {
+
+    private static final Gson gson = new Gson();
+
+    private final String json;
+
+    private JsonFragment(String json) {
+        this.json = json;
+    }
+
+    public static JsonFragment of(Object value) {
+        return new JsonFragment(gson.toJson(value));
+    }
+
+    public String getJson() {
+        return json;
+    }
+
+    @Override
+    public String toString() {
+        return json;
+    }
+
+    static class Adapter extends TypeAdapter<JsonFragment> {
+        @Override
+        public void write(JsonWriter out, JsonFragment fragment) throws IOException {
+            if (fragment == null) {
+                out.nullValue();
+                return;
+            }
+            if (out.getClass() == JsonWriter.class) {
+                out.jsonValue(fragment.json);
+            } else {
+                // Tree writers (toJsonTree) cannot take raw text, so give them the parsed value
+                gson.getAdapter(JsonElement.class).write(out, new JsonParser().parse(fragment.json));
+            }
+        }
+
+        @Override
+        public JsonFragment read(JsonReader in) throws IOException {
+            return new JsonFragment(gson.getAdapter(JsonElement.class).read(in).toString());
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package mcpthespire.view;
+
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable monster state.
+ */
+@JsonAdapter(MonsterView.Writer.class)
+public final class MonsterView {
+
+    public final String id;
+    public final String name;
+    public final int currentHp;
+    public final int maxHp;
+    public final boolean isGone;
+    public final String intent;
+    // Intended damage per hit after modifiers, 0 if the move does not attack or the intent is hidden
+    public final int moveDamage;
+    public final int moveHits;
+    public final boolean halfDead;
+    public final int block;
+    public final List<PowerView> powers;
+
+    public MonsterView(String id, String name, int currentHp, int maxHp, boolean isGone, String intent,
+                       int moveDamage, int moveHits, boolean halfDead, int block, List<PowerView> powers) {
+        this.id = id;
+        this.name = name;
+        this.currentHp = currentHp;
+        this.maxHp = maxHp;
+        this.isGone = isGone;
+        this.intent = intent;
+        this.moveDamage = moveDamage;
+        this.moveHits = moveHits;
+        this.halfDead = halfDead;
+        this.block = block;
+        this.powers = Collections.unmodifiableList(powers);
+    }
+
+    static final class Writer extends ViewWriter<MonsterView> {
+        private final PowerView.Writer powerWriter = new PowerView.Writer();
+
+        Writer() {
+            super(MonsterView.class);
+        }
+
+        @Override
+        void writeView(JsonWriter out, MonsterView monster) throws IOException {
+            out.beginObject();
+            // Essential fields
+            out.name("id").value(monster.id);
+            out.name("name").value(monster.name);
+            out.name("current_hp").value(monster.currentHp);
+            out.name("max_hp").value(monster.maxHp);
+            out.name("is_gone").value(monster.isGone);
+            out.name("intent").value(monster.intent);
+            // Combine move info into a single object for cleaner output
+            if (monster.moveDamage > 0) {
+                out.name("move").beginObject();
+                out.name("damage").value(monster.moveDamage);
+                if (monster.moveHits > 1) {
+                    out.name("hits").value(monster.moveHits);
+                }
+                out.endObject();
+            }
+
+            // Conditional fields - only include if relevant
+            if (monster.halfDead) {
+                out.name("half_dead").value(true);
+            }
+            if (monster.block > 0) {
+                out.name("block").value(monster.block);
+            }
+            if (!monster.powers.isEmpty()) {
+                out.name("powers").beginArray();
+                for (PowerView power : monster.powers) {
+                    powerWriter.write(out, power);
+                }
+                out.endArray();
+            }
+            out.endObject();
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package mcpthespire.view;
+
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonWriter;
+import com.megacrit.cardcrawl.orbs.AbstractOrb;
+
+import java.io.IOException;
+
+/**
+ * Immutable orb state.
+ */
+@JsonAdapter(OrbView.Writer.class)
+public final class OrbView {
+
+    public final String id;
+    public final int evoke;
+    public final int passive;
+
+    public OrbView(AbstractOrb orb) {
+        this.id = orb.ID;
+        this.evoke = orb.evokeAmount;
+        this.passive = orb.passiveAmount;
+    }
+
+    static final class Writer extends ViewWriter<OrbView> {
+        Writer() {
+            super(OrbView.class);
+        }
+
+        @Override
+        void writeView(JsonWriter out, OrbView orb) throws IOException {
+            out.beginObject();
+            out.name("id").value(orb.id);
+            // Only include amounts if they're meaningful (non-zero)
+            if (orb.evoke > 0) {
+                out.name("evoke").value(orb.evoke);
+            }
+            if (orb.passive > 0) {
+                out.name("passive").value(orb.passive);
+            }
+            out.endObject();
+        }
+    }
+}
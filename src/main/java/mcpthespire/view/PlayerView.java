@@ -0,0 +1,80 @@
+package mcpthespire.view;
+
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable combat state of the player.
+ */
+@JsonAdapter(PlayerView.Writer.class)
+public final class PlayerView {
+
+    public final int currentHp;
+    public final int maxHp;
+    public final int currentEnergy;
+    public final int maxEnergy;
+    public final int block;
+    public final List<PowerView> powers;
+    // Empty unless the character has orb slots
+    public final List<OrbView> orbs;
+    // Null in the neutral stance
+    public final String stance;
+
+    public PlayerView(int currentHp, int maxHp, int currentEnergy, int maxEnergy, int block,
+                      List<PowerView> powers, List<OrbView> orbs, String stance) {
+        this.currentHp = currentHp;
+        this.maxHp = maxHp;
+        this.currentEnergy = currentEnergy;
+        this.maxEnergy = maxEnergy;
+        this.block = block;
+        this.powers = Collections.unmodifiableList(powers);
+        this.orbs = Collections.unmodifiableList(orbs);
+        this.stance = stance;
+    }
+
+    static final class Writer extends ViewWriter<PlayerView> {
+        private final PowerView.Writer powerWriter = new PowerView.Writer();
+        private final OrbView.Writer orbWriter = new OrbView.Writer();
+
+        Writer() {
+            super(PlayerView.class);
+        }
+
+        @Override
+        void writeView(JsonWriter out, PlayerView player) throws IOException {
+            out.beginObject();
+            // Essential fields
+            out.name("current_hp").value(player.currentHp);
+            out.name("max_hp").value(player.maxHp);
+            out.name("current_energy").value(player.currentEnergy);
+            out.name("max_energy").value(player.maxEnergy);
+
+            // Conditional fields
+            if (player.block > 0) {
+                out.name("block").value(player.block);
+            }
+            if (!player.powers.isEmpty()) {
+                out.name("powers").beginArray();
+                for (PowerView power : player.powers) {
+                    powerWriter.write(out, power);
+                }
+                out.endArray();
+            }
+            if (!player.orbs.isEmpty()) {
+                out.name("orbs").beginArray();
+                for (OrbView orb : player.orbs) {
+                    orbWriter.write(out, orb);
+                }
+                out.endArray();
+            }
+            if (player.stance != null) {
+                out.name("stance").value(player.stance);
+            }
+            out.endObject();
+        }
+    }
+}
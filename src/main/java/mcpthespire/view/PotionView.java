@@ -0,0 +1,64 @@
+package mcpthespire.view;
+
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonWriter;
+import com.megacrit.cardcrawl.potions.AbstractPotion;
+import com.megacrit.cardcrawl.potions.PotionSlot;
+
+import java.io.IOException;
+
+/**
+ * Immutable potion (or empty potion slot) state.
+ */
+@JsonAdapter(PotionView.Writer.class)
+public final class PotionView {
+
+    public final String id;
+    public final String name;
+    public final boolean isEmpty;
+    public final boolean canUse;
+    public final boolean requiresTarget;
+    public final boolean canDiscard;
+    public final int price;
+
+    public PotionView(AbstractPotion potion, int price) {
+        this.id = potion.ID;
+        this.name = potion.name;
+        this.isEmpty = potion instanceof PotionSlot;
+        this.canUse = !isEmpty && potion.canUse();
+        this.requiresTarget = canUse && potion.isThrown;
+        this.canDiscard = !isEmpty && potion.canDiscard();
+        this.price = price;
+    }
+
+    static final class Writer extends ViewWriter<PotionView> {
+        Writer() {
+            super(PotionView.class);
+        }
+
+        @Override
+        void writeView(JsonWriter out, PotionView potion) throws IOException {
+            out.beginObject();
+            out.name("id").value(potion.id);
+            out.name("name").value(potion.name);
+            // Empty slots carry only the minimal info
+            if (potion.isEmpty) {
+                out.name("is_empty").value(true);
+            } else {
+                if (potion.canUse) {
+                    out.name("can_use").value(true);
+                    if (potion.requiresTarget) {
+                        out.name("requires_target").value(true);
+                    }
+                }
+                if (potion.canDiscard) {
+                    out.name("can_discard").value(true);
+                }
+                if (potion.price != Price.NONE) {
+                    out.name("price").value(potion.price);
+                }
+            }
+            out.endObject();
+        }
+    }
+}
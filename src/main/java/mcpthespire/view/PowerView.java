@@ -0,0 +1,62 @@
+package mcpthespire.view;
+
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Immutable power state. The optional fields come from power-specific private fields, read by
+ * the converter; null means the power has no such field.
+ */
+@JsonAdapter(PowerView.Writer.class)
+public final class PowerView {
+
+    public final String id;
+    public final int amount;
+    public final Integer damage;
+    public final CardView card;
+    public final Integer misc;
+    public final boolean justApplied;
+
+    public PowerView(String id, int amount, Integer damage, CardView card, Integer misc, boolean justApplied) {
+        this.id = id;
+        this.amount = amount;
+        this.damage = damage;
+        this.card = card;
+        this.misc = misc;
+        this.justApplied = justApplied;
+    }
+
+    static final class Writer extends ViewWriter<PowerView> {
+        private final CardView.Writer cardWriter = new CardView.Writer();
+
+        Writer() {
+            super(PowerView.class);
+        }
+
+        @Override
+        void writeView(JsonWriter out, PowerView power) throws IOException {
+            out.beginObject();
+            out.name("id").value(power.id);
+            // Amount - only include if non-zero (many powers use amount)
+            if (power.amount != 0) {
+                out.name("amount").value(power.amount);
+            }
+            if (power.damage != null) {
+                out.name("damage").value(power.damage);
+            }
+            if (power.card != null) {
+                out.name("card");
+                cardWriter.write(out, power.card);
+            }
+            if (power.misc != null) {
+                out.name("misc").value(power.misc);
+            }
+            if (power.justApplied) {
+                out.name("just_applied").value(true);
+            }
+            out.endObject();
+        }
+    }
+}
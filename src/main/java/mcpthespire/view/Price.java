@@ -0,0 +1,13 @@
+package mcpthespire.view;
+
+/**
+ * Shop prices carried by card, relic and potion views.
+ */
+public final class Price {
+
+    // The item is not for sale; no "price" field is written
+    public static final int NONE = -1;
+
+    private Price() {
+    }
+}
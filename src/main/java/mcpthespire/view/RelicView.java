@@ -0,0 +1,47 @@
+package mcpthespire.view;
+
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonWriter;
+import com.megacrit.cardcrawl.relics.AbstractRelic;
+
+import java.io.IOException;
+
+/**
+ * Immutable relic state.
+ */
+@JsonAdapter(RelicView.Writer.class)
+public final class RelicView {
+
+    public final String id;
+    public final String name;
+    public final int counter; // -1 unused, -2 special
+    public final int price;
+
+    public RelicView(AbstractRelic relic, int price) {
+        this.id = relic.relicId;
+        this.name = relic.name;
+        this.counter = relic.counter;
+        this.price = price;
+    }
+
+    static final class Writer extends ViewWriter<RelicView> {
+        Writer() {
+            super(RelicView.class);
+        }
+
+        @Override
+        void writeView(JsonWriter out, RelicView relic) throws IOException {
+            out.beginObject();
+            out.name("id").value(relic.id);
+            out.name("name").value(relic.name);
+            // Only include the counter if it is active
+            if (relic.counter >= 0) {
+                out.name("counter").value(relic.counter);
+            }
+            if (relic.price != Price.NONE) {
+                out.name("price").value(relic.price);
+            }
+            out.endObject();
+        }
+    }
+}
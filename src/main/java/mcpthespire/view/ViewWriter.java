@@ -0,0 +1,52 @@
+package mcpthespire.view;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Streams a view straight into the JsonWriter. Views are named with {@code @JsonAdapter} and only
+ * ever written, so reading is left to Gson's own reflective adapter.
+ */
+abstract class ViewWriter<T> implements TypeAdapterFactory {
+
+    private final Class<T> type;
+
+    ViewWriter(Class<T> type) {
+        this.type = type;
+    }
+
+    abstract void writeView(JsonWriter out, T value) throws IOException;
+
+    final void write(JsonWriter out, T value) throws IOException {
+        if (value == null) {
+            out.nullValue();
+            return;
+        }
+        writeView(out, value);
+    }
+
+    @Override
+    public <R> TypeAdapter<R> create(Gson gson, TypeToken<R> token) {
+        if (token.getRawType() != type) {
+            return null;
+        }
+        final TypeAdapter<R> reader = gson.getDelegateAdapter(this, token);
+        return new TypeAdapter<R>() {
+            @Override
+            public void write(JsonWriter out, R value) throws IOException {
+                ViewWriter.this.write(out, type.cast(value));
+            }
+
+            @Override
+            public R read(JsonReader in) throws IOException {
+                return reader.read(in);
+            }
+        };
+    }
+}